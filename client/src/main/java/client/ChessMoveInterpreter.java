@@ -24,7 +24,7 @@ public class ChessMoveInterpreter {
         char colChar = Character.toLowerCase(posString.charAt(0));
         int col = colChar - 'a' + 1;
         int row = posString.charAt(1) - '0';
-        return new ChessPosition(row, col);
+        return ChessPosition.of(row, col);
     }
 
     public PieceType promotionTypeFromString(String pieceString) {
@@ -12,20 +12,20 @@ import static ui.EscapeSequences.*;
 public class ChessBoardStringRenderer {
     private final Map<ChessPiece, String> pieceStringMap = Map.ofEntries(
             // White
-            Map.entry(new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.KING), whiteColor(WHITE_KING)),
-            Map.entry(new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.QUEEN), whiteColor(WHITE_QUEEN)),
-            Map.entry(new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.BISHOP), whiteColor(WHITE_BISHOP)),
-            Map.entry(new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.KNIGHT), whiteColor(WHITE_KNIGHT)),
-            Map.entry(new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.ROOK), whiteColor(WHITE_ROOK)),
-            Map.entry(new ChessPiece(TeamColor.WHITE, ChessPiece.PieceType.PAWN), whiteColor(WHITE_PAWN)),
+            Map.entry(ChessPiece.of(TeamColor.WHITE, ChessPiece.PieceType.KING), whiteColor(WHITE_KING)),
+            Map.entry(ChessPiece.of(TeamColor.WHITE, ChessPiece.PieceType.QUEEN), whiteColor(WHITE_QUEEN)),
+            Map.entry(ChessPiece.of(TeamColor.WHITE, ChessPiece.PieceType.BISHOP), whiteColor(WHITE_BISHOP)),
+            Map.entry(ChessPiece.of(TeamColor.WHITE, ChessPiece.PieceType.KNIGHT), whiteColor(WHITE_KNIGHT)),
+            Map.entry(ChessPiece.of(TeamColor.WHITE, ChessPiece.PieceType.ROOK), whiteColor(WHITE_ROOK)),
+            Map.entry(ChessPiece.of(TeamColor.WHITE, ChessPiece.PieceType.PAWN), whiteColor(WHITE_PAWN)),
 
             // Black
-            Map.entry(new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.KING), blackColor(BLACK_KING)),
-            Map.entry(new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.QUEEN), blackColor(BLACK_QUEEN)),
-            Map.entry(new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.BISHOP), blackColor(BLACK_BISHOP)),
-            Map.entry(new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.KNIGHT), blackColor(BLACK_KNIGHT)),
-            Map.entry(new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.ROOK), blackColor(BLACK_ROOK)),
-            Map.entry(new ChessPiece(TeamColor.BLACK, ChessPiece.PieceType.PAWN), blackColor(BLACK_PAWN))
+            Map.entry(ChessPiece.of(TeamColor.BLACK, ChessPiece.PieceType.KING), blackColor(BLACK_KING)),
+            Map.entry(ChessPiece.of(TeamColor.BLACK, ChessPiece.PieceType.QUEEN), blackColor(BLACK_QUEEN)),
+            Map.entry(ChessPiece.of(TeamColor.BLACK, ChessPiece.PieceType.BISHOP), blackColor(BLACK_BISHOP)),
+            Map.entry(ChessPiece.of(TeamColor.BLACK, ChessPiece.PieceType.KNIGHT), blackColor(BLACK_KNIGHT)),
+            Map.entry(ChessPiece.of(TeamColor.BLACK, ChessPiece.PieceType.ROOK), blackColor(BLACK_ROOK)),
+            Map.entry(ChessPiece.of(TeamColor.BLACK, ChessPiece.PieceType.PAWN), blackColor(BLACK_PAWN))
     );
 
     private final Map<Integer, String> integerFullWidthMap = Map.of(
@@ -98,7 +98,7 @@ public class ChessBoardStringRenderer {
             var rowPieces = new String[8];
             var areSpacesHighlighted = new boolean[8];
             for (int c = 1; c <= 8; c++) {
-                ChessPosition pos = new ChessPosition(r, c);
+                ChessPosition pos = ChessPosition.of(r, c);
                 ChessPiece piece = board.getPiece(pos);
                 rowPieces[c - 1] = (piece != null) ? pieceStringMap.get(piece) : EMPTY;
                 if (highlightedPositions.contains(pos)) {
@@ -150,7 +150,7 @@ public class ChessBoardStringRenderer {
             var rowPieces = new String[8];
             var areSpacesHighlighted = new boolean[8];
             for (int c = 1; c <= 8; c++) {
-                ChessPosition pos = new ChessPosition(r, c);
+                ChessPosition pos = ChessPosition.of(r, c);
                 ChessPiece piece = board.getPiece(pos);
                 rowPieces[8 - c] = (piece != null) ? pieceStringMap.get(piece) : EMPTY;
                 if (highlightedPositions.contains(pos)) {
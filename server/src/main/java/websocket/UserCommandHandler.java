@@ -122,6 +122,14 @@ public class UserCommandHandler {
                 userMessage = "You resigned. Game over!";
                 broadcastMessage = gameData.blackUsername() + " resigned. Game over!";
             }
+            case DRAW_BY_REPETITION -> {
+                userMessage = "The same position has occurred three times. Game over, it's a draw!";
+                broadcastMessage = userMessage;
+            }
+            case DRAW_BY_FIFTY_MOVE_RULE -> {
+                userMessage = "Fifty moves have passed without a capture or pawn move. Game over, it's a draw!";
+                broadcastMessage = userMessage;
+            }
         }
         connectionManager.sendMessage(session, userMessage);
         connectionManager.broadcastExcluding(broadcastMessage, gameID, session);
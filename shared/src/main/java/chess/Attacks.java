@@ -0,0 +1,309 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Precomputed attack bitboards for every piece type, indexed by square (see ChessBoard for
+ * the square numbering). Leaper attacks (king, knight, pawn) are plain table lookups.
+ * <p>
+ * Slider attacks (bishop, rook, queen) use magic bitboards: the occupied squares that can
+ * block the slider are multiplied by a per-square magic number, and the top bits of the
+ * product index a table of precomputed attacks, so a lookup is an AND, a multiply, a shift
+ * and an array load. Attacks include the first occupied square on each ray.
+ */
+final class Attacks {
+    // Ray directions, as {row step, column step}. The first four move toward higher square indices.
+    private static final int[][] DIRECTIONS = {
+            {0, 1}, {1, -1}, {1, 0}, {1, 1},
+            {0, -1}, {-1, 1}, {-1, 0}, {-1, -1},
+    };
+    private static final int[] ROOK_DIRECTIONS = {0, 2, 4, 6};
+    private static final int[] BISHOP_DIRECTIONS = {1, 3, 5, 7};
+
+    private static final long[][] RAYS = new long[DIRECTIONS.length][ChessBoard.NUM_SQUARES];
+    private static final long[] KNIGHT = new long[ChessBoard.NUM_SQUARES];
+    private static final long[] KING = new long[ChessBoard.NUM_SQUARES];
+    private static final long[][] PAWN = new long[2][ChessBoard.NUM_SQUARES];
+    private static final long[][] BETWEEN = new long[ChessBoard.NUM_SQUARES][ChessBoard.NUM_SQUARES];
+    private static final long[][] LINE = new long[ChessBoard.NUM_SQUARES][ChessBoard.NUM_SQUARES];
+
+    // Magic numbers for each square, found by Magics.findMagic() from MAGIC_SEED. Searching
+    // for them takes hundreds of milliseconds at startup, so they are kept here; any that
+    // failed to work would be searched for again.
+    private static final long MAGIC_SEED = 0x4D41474943L;
+    private static final long[] BISHOP_MAGIC_NUMBERS = {
+            0x1818182800840090L, 0x8018510102021000L, 0x0012008202041000L, 0x0888209020100104L,
+            0x4008484080000304L, 0x8080901460040000L, 0x0004660220204004L, 0x008100480C1C2200L,
+            0x440A081228480120L, 0x8400100C00B08210L, 0x1000880204042800L, 0x0000209087032000L,
+            0x2090011040018008L, 0x4000429010180000L, 0x0020040108880401L, 0x0000010848024805L,
+            0x815021C0110200A0L, 0x2008081030011840L, 0x8028809004001020L, 0x8008000082044100L,
+            0x0104802400A00081L, 0x0022000288014814L, 0xC001110401013000L, 0x8002004020944C00L,
+            0x5948088020210100L, 0x6881100204900200L, 0x0001444008020401L, 0x1C00848018020040L,
+            0x0328840002020200L, 0x4008020000B10402L, 0x04014202C2480440L, 0x4102084002005200L,
+            0x0410482000860400L, 0x0000821000091004L, 0x0014402200100402L, 0x4008208020480200L,
+            0x4391080200002200L, 0x015002008002B008L, 0x8828051D20444800L, 0x1018011021404200L,
+            0x0800843442322000L, 0x509218848400A000L, 0x200200209040E800L, 0x8024004208004080L,
+            0x04054200A2000401L, 0x0101010901025602L, 0x2008028802000040L, 0x0302480200800820L,
+            0x0140441004100000L, 0x0301008084208040L, 0x0040008448082008L, 0x0001200084040000L,
+            0x4480008903040083L, 0x0021040408420002L, 0x001010C208004010L, 0xA060C49086004001L,
+            0x00008040501008C8L, 0x2080004044100840L, 0x0040008042280401L, 0x1048204002420206L,
+            0x6201480040029200L, 0x0040002020020084L, 0x0004408304040088L, 0xA8300E40C8008100L
+    };
+    private static final long[] ROOK_MAGIC_NUMBERS = {
+            0x4180002040008212L, 0x0240002000401002L, 0x0880081001802000L, 0x3180080035801001L,
+            0x0A00200200100409L, 0x0A00040810018200L, 0xA0802A0041000880L, 0x0200004184020F21L,
+            0x0400800020804000L, 0x420C400420100440L, 0x0412001020420080L, 0x4482004200102008L,
+            0x0140800800800400L, 0x0001000400030008L, 0x0041004100820024L, 0x200200023100804CL,
+            0x0080044001456011L, 0x001000C040002004L, 0x0068420011220480L, 0x2040808008001000L,
+            0x0211510028002500L, 0x0000480120403024L, 0x0100010100040200L, 0x08401A0000C40083L,
+            0x2040008080004022L, 0x1100820A00410020L, 0x4989004100200016L, 0x0001010900100020L,
+            0x8204008080040800L, 0x0020040080020080L, 0x5006014400021008L, 0x0000008600010844L,
+            0x0080004000402000L, 0x0000401000402001L, 0x5001041145002000L, 0x4120823802801000L,
+            0x0004004008080080L, 0x9009000289000400L, 0x0004080184000210L, 0x0008800060800100L,
+            0x8600400080008020L, 0x4000200040008080L, 0x0510200041010018L, 0x180010010021000AL,
+            0x0204000800808005L, 0x002600081006000CL, 0x0200414802840010L, 0x4000408044020001L,
+            0x0000400080102080L, 0x0840804000200380L, 0x0020104020820200L, 0x0108201001018900L,
+            0x1005010800BC3100L, 0x0001000804000300L, 0x1428012842100400L, 0x208000A041040200L,
+            0x9100248000130241L, 0x0982008122449102L, 0x008100400C200011L, 0x8241000608201001L,
+            0x8402008408211002L, 0x0401000400020801L, 0x0812000100880402L, 0x0904002044148102L
+    };
+    private static final Magics BISHOP_MAGICS;
+    private static final Magics ROOK_MAGICS;
+
+    static {
+        int[][] knightSteps = {
+                {2, -1}, {2, 1}, {1, -2}, {1, 2},
+                {-1, -2}, {-1, 2}, {-2, -1}, {-2, 1},
+        };
+        for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+            int row = square / ChessBoard.NUM_COLS;
+            int col = square % ChessBoard.NUM_COLS;
+
+            for (int dir = 0; dir < DIRECTIONS.length; dir++) {
+                int dRow = DIRECTIONS[dir][0];
+                int dCol = DIRECTIONS[dir][1];
+                KING[square] |= bit(row + dRow, col + dCol);
+                for (int r = row + dRow, c = col + dCol; onBoard(r, c); r += dRow, c += dCol) {
+                    RAYS[dir][square] |= bit(r, c);
+                }
+            }
+            for (int[] step : knightSteps) {
+                KNIGHT[square] |= bit(row + step[0], col + step[1]);
+            }
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][square] = bit(row + 1, col - 1) | bit(row + 1, col + 1);
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][square] = bit(row - 1, col - 1) | bit(row - 1, col + 1);
+        }
+
+        for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+            for (int dir = 0; dir < DIRECTIONS.length; dir++) {
+                int opposite = (dir + 4) % DIRECTIONS.length;
+                long line = RAYS[dir][square] | RAYS[opposite][square] | (1L << square);
+                for (long bits = RAYS[dir][square]; bits != 0; bits &= bits - 1) {
+                    int other = Long.numberOfTrailingZeros(bits);
+                    BETWEEN[square][other] = RAYS[dir][square] & RAYS[opposite][other];
+                    LINE[square][other] = line;
+                }
+            }
+        }
+
+        var random = new SplittableRandom(MAGIC_SEED);
+        BISHOP_MAGICS = new Magics(BISHOP_DIRECTIONS, BISHOP_MAGIC_NUMBERS, random);
+        ROOK_MAGICS = new Magics(ROOK_DIRECTIONS, ROOK_MAGIC_NUMBERS, random);
+    }
+
+    private Attacks() {
+    }
+
+    private static boolean onBoard(int row, int col) {
+        return row >= 0 && row < ChessBoard.NUM_ROWS && col >= 0 && col < ChessBoard.NUM_COLS;
+    }
+
+    private static long bit(int row, int col) {
+        return onBoard(row, col) ? 1L << (row * ChessBoard.NUM_COLS + col) : 0L;
+    }
+
+    static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * Gets the squares a pawn of the given color attacks (its forward diagonals).
+     *
+     * @param colorOrdinal The ordinal of the pawn's TeamColor.
+     * @param square       The pawn's square.
+     * @return The attacked squares.
+     */
+    static long pawn(int colorOrdinal, int square) {
+        return PAWN[colorOrdinal][square];
+    }
+
+    /**
+     * Gets the squares strictly between two squares that share a row, column or diagonal.
+     *
+     * @return The squares between a and b, or 0 if they are not aligned.
+     */
+    static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * Gets every square on the full row, column or diagonal through two aligned squares.
+     *
+     * @return The squares on the line through a and b, or 0 if they are not aligned.
+     */
+    static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    static long bishop(int square, long occupancy) {
+        return BISHOP_MAGICS.attacks(square, occupancy);
+    }
+
+    static long rook(int square, long occupancy) {
+        return ROOK_MAGICS.attacks(square, occupancy);
+    }
+
+    static long queen(int square, long occupancy) {
+        return BISHOP_MAGICS.attacks(square, occupancy) | ROOK_MAGICS.attacks(square, occupancy);
+    }
+
+    /**
+     * Finds a slider's attacks by casting each of its rays. This is what the magic tables
+     * are built from.
+     */
+    static long slowSliderAttacks(int[] directions, int square, long occupancy) {
+        long attacks = 0L;
+        for (int dir : directions) {
+            attacks |= ray(dir, square, occupancy);
+        }
+        return attacks;
+    }
+
+    private static long ray(int dir, int square, long occupancy) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupancy;
+        if (blockers == 0) {
+            return ray;
+        }
+        // The nearest blocker is the lowest bit on increasing rays and the highest on decreasing ones
+        int blocker = (dir < 4) ?
+                Long.numberOfTrailingZeros(blockers) :
+                63 - Long.numberOfLeadingZeros(blockers);
+        return ray ^ RAYS[dir][blocker];
+    }
+
+    /**
+     * Magic bitboard tables for one kind of slider. Every square's attacks share one flat
+     * table, each square using its own slice from its offset.
+     */
+    private static final class Magics {
+        // The squares whose occupancy can change a slider's attacks: its rays without the
+        // board edge, since a piece on the last square of a ray blocks nothing
+        private final long[] masks = new long[ChessBoard.NUM_SQUARES];
+        private final long[] magics = new long[ChessBoard.NUM_SQUARES];
+        private final int[] shifts = new int[ChessBoard.NUM_SQUARES];
+        private final int[] offsets = new int[ChessBoard.NUM_SQUARES];
+        private final long[] table;
+
+        Magics(int[] directions, long[] knownMagics, SplittableRandom random) {
+            int size = 0;
+            for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+                long mask = 0L;
+                for (int dir : directions) {
+                    long ray = RAYS[dir][square];
+                    // The edge square is the farthest one: the highest bit on increasing rays
+                    long edge = (dir < 4) ? Long.highestOneBit(ray) : Long.lowestOneBit(ray);
+                    mask |= ray & ~edge;
+                }
+                masks[square] = mask;
+                shifts[square] = Long.SIZE - Long.bitCount(mask);
+                offsets[square] = size;
+                size += 1 << Long.bitCount(mask);
+            }
+
+            table = new long[size];
+            for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+                if (!tryMagic(directions, square, knownMagics[square])) {
+                    findMagic(directions, square, random);
+                }
+            }
+        }
+
+        long attacks(int square, long occupancy) {
+            return table[offsets[square] + (int) (((occupancy & masks[square]) * magics[square]) >>> shifts[square])];
+        }
+
+        /**
+         * Fills a square's slice of the table using a magic number, checking that no two
+         * blocker subsets with different attacks share a slot.
+         *
+         * @return true if the magic works for the square.
+         */
+        private boolean tryMagic(int[] directions, int square, long magic) {
+            long mask = masks[square];
+            int count = 1 << Long.bitCount(mask);
+            boolean[] filled = new boolean[count];
+            long subset = 0L;
+            for (int i = 0; i < count; i++) {
+                long attacks = slowSliderAttacks(directions, square, subset);
+                int slot = (int) ((subset * magic) >>> shifts[square]);
+                if (filled[slot] && table[offsets[square] + slot] != attacks) {
+                    return false;
+                }
+                filled[slot] = true;
+                table[offsets[square] + slot] = attacks;
+                subset = (subset - mask) & mask;
+            }
+            magics[square] = magic;
+            return true;
+        }
+
+        /**
+         * Tries random sparse numbers until one maps every blocker subset of the square's
+         * mask to a table slot without two subsets with different attacks sharing a slot.
+         */
+        private void findMagic(int[] directions, int square, SplittableRandom random) {
+            long mask = masks[square];
+            int count = 1 << Long.bitCount(mask);
+            long[] subsets = new long[count];
+            long[] attacks = new long[count];
+            // Enumerate every subset of the mask with the carry-rippler trick
+            long subset = 0L;
+            for (int i = 0; i < count; i++) {
+                subsets[i] = subset;
+                attacks[i] = slowSliderAttacks(directions, square, subset);
+                subset = (subset - mask) & mask;
+            }
+
+            // The attempt that last filled each slot, so slots need not be cleared between tries
+            int[] filledBy = new int[count];
+            for (int attempt = 1; ; attempt++) {
+                long magic = random.nextLong() & random.nextLong() & random.nextLong();
+                // Magics that spread the mask's high bits poorly rarely work, so skip them
+                if (Long.bitCount((mask * magic) >>> 56) < 6) {
+                    continue;
+                }
+
+                boolean works = true;
+                for (int i = 0; i < count && works; i++) {
+                    int slot = (int) ((subsets[i] * magic) >>> shifts[square]);
+                    int tableIndex = offsets[square] + slot;
+                    if (filledBy[slot] != attempt) {
+                        filledBy[slot] = attempt;
+                        table[tableIndex] = attacks[i];
+                    } else {
+                        works = table[tableIndex] == attacks[i];
+                    }
+                }
+                if (works) {
+                    magics[square] = magic;
+                    return;
+                }
+            }
+        }
+    }
+}
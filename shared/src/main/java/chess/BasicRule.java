@@ -34,39 +34,34 @@ public class BasicRule implements Rule {
      * Get all possible moves a chess piece can make.
      *
      * @param board     The chessboard.
-     * @param pos       The position of the chess piece.
+     * @param square    The square index of the chess piece.
      * @param teamColor The team color the piece belongs to.
-     * @return A Collection of all valid moves.
+     * @param moves     The list to append the moves to.
      */
     @Override
-    public Collection<ChessMove> getMoves(
-            ChessBoard board, ChessPosition pos, TeamColor teamColor
-    ) {
-        var validMoves = new HashSet<ChessMove>();
+    public void getMoves(ChessBoard board, int square, TeamColor teamColor, MoveList moves) {
+        int row = square / ChessBoard.NUM_COLS;
+        int col = square % ChessBoard.NUM_COLS;
 
         for (int[] potentialMove : potentialMoves) {
             for (
-                    var newPos = new ChessPosition(
-                            pos.getRow() + potentialMove[0],
-                            pos.getColumn() + potentialMove[1]
-                    );
-                    board.posInBounds(newPos);
-                    newPos = new ChessPosition(
-                            newPos.getRow() + potentialMove[0],
-                            newPos.getColumn() + potentialMove[1]
-                    )
+                    int newRow = row + potentialMove[0], newCol = col + potentialMove[1];
+                    newRow >= 0 && newRow < ChessBoard.NUM_ROWS && newCol >= 0 && newCol < ChessBoard.NUM_COLS;
+                    newRow += potentialMove[0], newCol += potentialMove[1]
             ) {
                 // Break if space is occupied by a piece of the same color
-                ChessPiece thatPiece = board.getPiece(newPos);
-                if (thatPiece != null && thatPiece.getTeamColor() == teamColor) {
+                int newSquare = newRow * ChessBoard.NUM_COLS + newCol;
+                int thatPiece = board.pieceAt(newSquare);
+                boolean occupied = thatPiece != ChessBoard.NO_PIECE;
+                if (occupied && thatPiece / ChessBoard.NUM_PIECE_TYPES == teamColor.ordinal()) {
                     break;
                 }
 
-                // Create new ChessMove from new position and add to valid moves
-                validMoves.add(new ChessMove(pos, newPos));
+                // Add the move to valid moves
+                moves.add(Move.encode(square, newSquare, ChessBoard.NO_PIECE, occupied ? Move.CAPTURE : 0));
 
                 // Don't repeat if this move would capture an enemy
-                if (thatPiece != null) {
+                if (occupied) {
                     break;
                 }
 
@@ -76,8 +71,6 @@ public class BasicRule implements Rule {
                 }
             }
         }
-
-        return validMoves;
     }
 
     @Override
@@ -2,26 +2,121 @@ package chess;
 
 import chess.ChessGame.TeamColor;
 import chess.ChessPiece.PieceType;
+import com.google.gson.annotations.JsonAdapter;
 
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Objects;
+import java.util.List;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Internally, the board is stored as one bitboard (a <code>long</code> with one bit per square)
+ * for each of the 12 colored piece types, plus an occupancy mask for each team color and
+ * for the board as a whole. Squares are indexed from 0 (row 1, column 1) to 63
+ * (row 8, column 8), row by row. A 64-entry mailbox mirrors the bitboards so that
+ * <code>getPiece()</code> is a single array load.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessBoardAdapter.class)
 public class ChessBoard {
-    private final ChessPiece[][] board = new ChessPiece[8][8];
+    static final int NUM_ROWS = 8;
+    static final int NUM_COLS = 8;
+    public static final int NUM_SQUARES = NUM_ROWS * NUM_COLS;
+    public static final int NUM_PIECE_TYPES = PieceType.values().length;
+    public static final int NO_PIECE = -1;
+    public static final int NO_SQUARE = -1;
+
+    private static final ChessPiece[] PIECES = new ChessPiece[2 * NUM_PIECE_TYPES];
+
+    // FEN letters by piece index, and piece indices by FEN letter (NO_PIECE for other characters)
+    private static final String FEN_PIECES = "KQBNRPkqbnrp";
+    private static final byte[] FEN_PIECE_INDICES = new byte[128];
+
+    static {
+        Arrays.fill(FEN_PIECE_INDICES, (byte) NO_PIECE);
+        for (int pieceIndex = 0; pieceIndex < FEN_PIECES.length(); pieceIndex++) {
+            FEN_PIECE_INDICES[FEN_PIECES.charAt(pieceIndex)] = (byte) pieceIndex;
+        }
+    }
+
+    static {
+        for (TeamColor color : TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[pieceIndex(color, type)] = ChessPiece.of(color, type);
+            }
+        }
+    }
+
+    private final long[] pieceBitboards = new long[2 * NUM_PIECE_TYPES];
+    private final long[] colorBitboards = new long[2];
+    private long occupied;
+    private final byte[] mailbox = new byte[NUM_SQUARES];
+    private long zobristKey;
+    private final PositionEvaluator evaluator;
+
+    // Records of moves made with doMove(), most recent last
+    private int[] undoStack = new int[32];
+    private int undoSize;
+
+    // Reused by makeMove() to hold the moving piece's moves; created on first use
+    private MoveList moveBuffer;
 
     public ChessBoard() {
+        Arrays.fill(mailbox, (byte) NO_PIECE);
+        evaluator = new PositionEvaluator();
     }
 
     public ChessBoard(ChessBoard otherBoard) {
-        setBoard(otherBoard.board);
+        System.arraycopy(otherBoard.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(otherBoard.colorBitboards, 0, colorBitboards, 0, colorBitboards.length);
+        System.arraycopy(otherBoard.mailbox, 0, mailbox, 0, mailbox.length);
+        occupied = otherBoard.occupied;
+        zobristKey = otherBoard.zobristKey;
+        evaluator = new PositionEvaluator(otherBoard.evaluator);
+    }
+
+    /**
+     * Gets the index of a colored piece type, as used by the piece bitboards.
+     *
+     * @param color The team color of the piece.
+     * @param type  The type of the piece.
+     * @return An index from 0 to 11.
+     */
+    public static int pieceIndex(TeamColor color, PieceType type) {
+        return color.ordinal() * NUM_PIECE_TYPES + type.ordinal();
+    }
+
+    /**
+     * Gets the shared ChessPiece instance for a piece index.
+     *
+     * @param pieceIndex An index from 0 to 11.
+     * @return The matching ChessPiece.
+     */
+    static ChessPiece pieceFromIndex(int pieceIndex) {
+        return PIECES[pieceIndex];
+    }
+
+    /**
+     * Converts a position into a square index.
+     *
+     * @param pos A position that is on the board.
+     * @return The square index, from 0 to 63.
+     */
+    static int squareOf(ChessPosition pos) {
+        return (pos.getRow() - 1) * NUM_COLS + (pos.getColumn() - 1);
+    }
+
+    /**
+     * Converts a square index into a position.
+     *
+     * @param square The square index, from 0 to 63.
+     * @return The matching ChessPosition.
+     */
+    static ChessPosition positionOf(int square) {
+        return ChessPosition.of(square / NUM_COLS + 1, square % NUM_COLS + 1);
     }
 
     /**
@@ -31,12 +126,9 @@ public class ChessBoard {
      * @return true if pos is on the board; false otherwise.
      */
     public boolean posInBounds(ChessPosition pos) {
-        try {
-            var item = board[pos.getRow() - 1][pos.getColumn() - 1];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            return false;
-        }
-        return true;
+        int row = pos.getRow();
+        int col = pos.getColumn();
+        return row >= 1 && row <= NUM_ROWS && col >= 1 && col <= NUM_COLS;
     }
 
     /**
@@ -45,7 +137,7 @@ public class ChessBoard {
      * @return The number of rows on the board.
      */
     public int numRows() {
-        return board.length;
+        return NUM_ROWS;
     }
 
     /**
@@ -54,7 +146,7 @@ public class ChessBoard {
      * @return The number of columns on the board.
      */
     public int numCols() {
-        return board[0].length;
+        return NUM_COLS;
     }
 
     /**
@@ -64,12 +156,10 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        try {
-            board[position.getRow() - 1][position.getColumn() - 1] = piece;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new ArrayIndexOutOfBoundsException(
-                    String.format("The given position (%s) is located outside the chessboard's range.", position)
-            );
+        int square = checkedSquareOf(position);
+        clearSquare(square);
+        if (piece != null) {
+            setSquare(square, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
         }
     }
 
@@ -79,13 +169,7 @@ public class ChessBoard {
      * @param position where to remove the piece
      */
     public void removePiece(ChessPosition position) {
-        try {
-            board[position.getRow() - 1][position.getColumn() - 1] = null;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new ArrayIndexOutOfBoundsException(
-                    String.format("The given position (%s) is located outside the chessboard's range.", position)
-            );
-        }
+        clearSquare(checkedSquareOf(position));
     }
 
     /**
@@ -96,37 +180,28 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        ChessPiece piece;
-        try {
-            piece = board[position.getRow() - 1][position.getColumn() - 1];
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new ArrayIndexOutOfBoundsException(
-                    String.format("The given position (%s) is located outside the chessboard's range.", position)
-            );
-        }
-        return piece;
+        int pieceIndex = mailbox[checkedSquareOf(position)];
+        return (pieceIndex != NO_PIECE) ? PIECES[pieceIndex] : null;
     }
 
     /**
      * Get all spaces on the chessboard occupied by a certain team color.
+     * <br><br>
+     * The positions are read straight from the team's occupancy bitboard, without scanning
+     * the board. The returned collection is a read-only copy, so it does not change when the
+     * board does.
      *
      * @param teamColor The team color to check for.
      * @return A collection of all spaces occupied by the given team color.
      */
     public Collection<ChessPosition> getOccupiedPositions(TeamColor teamColor) {
-        Collection<ChessPosition> occupiedSpaces = new HashSet<>();
-
-        for (int r = 1; r <= numRows(); r++) {
-            for (int c = 1; c <= numCols(); c++) {
-                ChessPosition pos = new ChessPosition(r, c);
-                ChessPiece piece = getPiece(pos);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    occupiedSpaces.add(pos);
-                }
-            }
+        long teamPieces = colorBitboards[teamColor.ordinal()];
+        var positions = new ChessPosition[Long.bitCount(teamPieces)];
+        int i = 0;
+        for (long bits = teamPieces; bits != 0; bits &= bits - 1) {
+            positions[i++] = positionOf(Long.numberOfTrailingZeros(bits));
         }
-
-        return occupiedSpaces;
+        return List.of(positions);
     }
 
     /**
@@ -137,19 +212,95 @@ public class ChessBoard {
      * @return A ChessPosition of the first piece found; null otherwise
      */
     public ChessPosition findFirstPiece(PieceType pieceType, TeamColor teamColor) {
-        // Get all positions that match the team color
-        Collection<ChessPosition> teamPositions = getOccupiedPositions(teamColor);
-
-        // Return the first match found
-        for (ChessPosition pos : teamPositions) {
-            ChessPiece piece = getPiece(pos);
-            if (piece.getPieceType() == pieceType) {
-                return pos;
-            }
+        long pieces = pieceBitboards[pieceIndex(teamColor, pieceType)];
+        return (pieces != 0) ? positionOf(Long.numberOfTrailingZeros(pieces)) : null;
+    }
+
+    /**
+     * Finds the king of the given team color. If the team has more than one king, this is the
+     * one on the lowest square.
+     *
+     * @param teamColor The team color of the king.
+     * @return The king's square index, or NO_SQUARE if the team has no king.
+     */
+    public int kingSquare(TeamColor teamColor) {
+        long king = pieceBitboards[pieceIndex(teamColor, PieceType.KING)];
+        return (king != 0) ? Long.numberOfTrailingZeros(king) : NO_SQUARE;
+    }
+
+    /**
+     * Determines whether any piece of the given team color attacks a position, whether or not
+     * the position is occupied. Rather than generating the moves of every enemy piece, this
+     * casts rays and knight, pawn and king patterns outward from the position and checks
+     * whether they land on a matching enemy piece.
+     *
+     * @param position The position to check.
+     * @param byColor  The team color of the attacking pieces.
+     * @return true if a piece of byColor attacks the position; false otherwise.
+     */
+    public boolean isSquareAttacked(ChessPosition position, TeamColor byColor) {
+        return isSquareAttacked(checkedSquareOf(position), byColor, occupied);
+    }
+
+    /**
+     * Determines whether any piece of the given team color attacks a square, treating
+     * the squares in occupancy as the only blockers for sliding pieces.
+     *
+     * @param square    The square index to check.
+     * @param byColor   The team color of the attacking pieces.
+     * @param occupancy The occupancy bitboard used to block sliding pieces.
+     * @return true if a piece of byColor attacks the square; false otherwise.
+     */
+    public boolean isSquareAttacked(int square, TeamColor byColor, long occupancy) {
+        int base = byColor.ordinal() * NUM_PIECE_TYPES;
+        // A pawn attacks this square if this square, as a defending pawn, would attack it back
+        int defenderOrdinal = (byColor == TeamColor.WHITE) ? 1 : 0;
+
+        if ((Attacks.pawn(defenderOrdinal, square) & pieceBitboards[base + PieceType.PAWN.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Attacks.knight(square) & pieceBitboards[base + PieceType.KNIGHT.ordinal()]) != 0) {
+            return true;
+        }
+        if ((Attacks.king(square) & pieceBitboards[base + PieceType.KING.ordinal()]) != 0) {
+            return true;
         }
 
-        // No piece found -> return null
-        return null;
+        long queens = pieceBitboards[base + PieceType.QUEEN.ordinal()];
+        long diagonalSliders = pieceBitboards[base + PieceType.BISHOP.ordinal()] | queens;
+        if (diagonalSliders != 0 && (Attacks.bishop(square, occupancy) & diagonalSliders) != 0) {
+            return true;
+        }
+        long straightSliders = pieceBitboards[base + PieceType.ROOK.ordinal()] | queens;
+        return straightSliders != 0 && (Attacks.rook(square, occupancy) & straightSliders) != 0;
+    }
+
+    /**
+     * Finds every piece of either color that attacks a square, treating the squares in
+     * occupancy as the only blockers for sliding pieces. Removing pieces from occupancy
+     * reveals the sliders behind them, which is how exchanges on a square are played out.
+     *
+     * @param square    The square index to check.
+     * @param occupancy The occupancy bitboard used to block sliding pieces.
+     * @return The bitboard of attacking pieces (including any not in occupancy).
+     */
+    public long attackersTo(int square, long occupancy) {
+        int white = 0;
+        int black = NUM_PIECE_TYPES;
+        long queens = pieceBitboards[white + PieceType.QUEEN.ordinal()] | pieceBitboards[black + PieceType.QUEEN.ordinal()];
+        long diagonalSliders = pieceBitboards[white + PieceType.BISHOP.ordinal()] |
+                pieceBitboards[black + PieceType.BISHOP.ordinal()] | queens;
+        long straightSliders = pieceBitboards[white + PieceType.ROOK.ordinal()] |
+                pieceBitboards[black + PieceType.ROOK.ordinal()] | queens;
+
+        return (Attacks.pawn(TeamColor.BLACK.ordinal(), square) & pieceBitboards[white + PieceType.PAWN.ordinal()]) |
+                (Attacks.pawn(TeamColor.WHITE.ordinal(), square) & pieceBitboards[black + PieceType.PAWN.ordinal()]) |
+                (Attacks.knight(square) & (pieceBitboards[white + PieceType.KNIGHT.ordinal()] |
+                        pieceBitboards[black + PieceType.KNIGHT.ordinal()])) |
+                (Attacks.king(square) & (pieceBitboards[white + PieceType.KING.ordinal()] |
+                        pieceBitboards[black + PieceType.KING.ordinal()])) |
+                (Attacks.bishop(square, occupancy) & diagonalSliders) |
+                (Attacks.rook(square, occupancy) & straightSliders);
     }
 
     /**
@@ -189,8 +340,12 @@ public class ChessBoard {
         }
 
         // Invalid if move is not in piece's valid moves
-        Collection<ChessMove> pieceMoves = piece.pieceMoves(this, startPos);
-        if (!pieceMoves.contains(move)) {
+        if (moveBuffer == null) {
+            moveBuffer = new MoveList(32);
+        }
+        moveBuffer.clear();
+        piece.pieceMoves(this, squareOf(startPos), moveBuffer);
+        if (!moveBuffer.contains(Move.of(move))) {
             throw new InvalidMoveException(String.format(
                     "The given chess move (%s) is not a valid move for piece %s",
                     move, piece
@@ -198,12 +353,87 @@ public class ChessBoard {
         }
 
         // All checks passed -> make the move, handling promotion if applicable
+        doMove(move);
+    }
+
+    /**
+     * Makes a move without validating it, recording enough information to take it back
+     * with <code>undoMove()</code>. Any piece on the end position is captured, and the
+     * moving piece is replaced by the move's promotion piece if it has one.
+     *
+     * @param move The ChessMove to be made. The start position must hold a piece.
+     */
+    public void doMove(ChessMove move) {
         PieceType promotionPiece = move.getPromotionPiece();
-        var newPiece = (promotionPiece != null) ?
-                new ChessPiece(piece.getTeamColor(), promotionPiece) :
-                piece;
-        addPiece(endPos, newPiece);
-        removePiece(startPos);
+        doMove(
+                squareOf(move.getStartPosition()),
+                squareOf(move.getEndPosition()),
+                (promotionPiece != null) ? promotionPiece.ordinal() : NO_PIECE
+        );
+    }
+
+    /**
+     * Makes a move between two squares without validating it. See <code>doMove(ChessMove)</code>.
+     *
+     * @param startSquare    The square index the piece moves from.
+     * @param endSquare      The square index the piece moves to.
+     * @param promotionType  The ordinal of the PieceType to promote to, or NO_PIECE.
+     */
+    void doMove(int startSquare, int endSquare, int promotionType) {
+        int movedPiece = mailbox[startSquare];
+        if (movedPiece == NO_PIECE) {
+            throw new IllegalArgumentException(String.format(
+                    "No piece located at start position %s", positionOf(startSquare)
+            ));
+        }
+        int capturedPiece = mailbox[endSquare];
+        int placedPiece = (promotionType != NO_PIECE) ?
+                (movedPiece / NUM_PIECE_TYPES) * NUM_PIECE_TYPES + promotionType :
+                movedPiece;
+
+        pushUndo(UndoRecord.pack(startSquare, endSquare, movedPiece, capturedPiece));
+
+        clearSquare(startSquare);
+        clearSquare(endSquare);
+        setSquare(endSquare, placedPiece);
+    }
+
+    /**
+     * Makes an encoded move without validating it. See <code>doMove(ChessMove)</code>.
+     *
+     * @param move The encoded move (see <code>Move</code>).
+     */
+    public void doMove(int move) {
+        doMove(Move.startSquare(move), Move.endSquare(move), Move.promotionType(move));
+    }
+
+    /**
+     * Takes back the most recent move made with <code>doMove()</code> or <code>makeMove()</code>,
+     * restoring the moved piece, any captured piece, and the piece that was promoted.
+     *
+     * @throws IllegalStateException if there are no moves to take back.
+     */
+    public void undoMove() {
+        if (undoSize == 0) {
+            throw new IllegalStateException("There are no moves to undo");
+        }
+        int record = undoStack[--undoSize];
+        int startSquare = UndoRecord.startSquare(record);
+        int endSquare = UndoRecord.endSquare(record);
+        int capturedPiece = UndoRecord.capturedPiece(record);
+
+        clearSquare(endSquare);
+        setSquare(startSquare, UndoRecord.movedPiece(record));
+        if (capturedPiece != NO_PIECE) {
+            setSquare(endSquare, capturedPiece);
+        }
+    }
+
+    private void pushUndo(int record) {
+        if (undoSize == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoSize * 2);
+        }
+        undoStack[undoSize++] = record;
     }
 
     /**
@@ -212,9 +442,138 @@ public class ChessBoard {
      * @param newBoard the new board to copy into board.
      */
     public void setBoard(ChessPiece[][] newBoard) {
-        for (int i = 0; i < board.length; i++) {
-            board[i] = Arrays.copyOf(newBoard[i], board.length);
+        clear();
+        for (int r = 0; r < NUM_ROWS; r++) {
+            for (int c = 0; c < NUM_COLS; c++) {
+                ChessPiece piece = newBoard[r][c];
+                if (piece != null) {
+                    setSquare(r * NUM_COLS + c, pieceIndex(piece.getTeamColor(), piece.getPieceType()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the board into a two-dimensional array, indexed by [row - 1][column - 1].
+     *
+     * @return A new array holding every piece on the board, with null for empty squares.
+     */
+    public ChessPiece[][] toArray() {
+        var array = new ChessPiece[NUM_ROWS][NUM_COLS];
+        for (long bits = occupied; bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            array[square / NUM_COLS][square % NUM_COLS] = PIECES[mailbox[square]];
         }
+        return array;
+    }
+
+    /**
+     * Creates a board from the piece placement field of a FEN string, such as
+     * <code>rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR</code>. Rows are listed from row 8
+     * down to row 1, and any fields after the placement (separated by a space) are ignored.
+     *
+     * @param fen The FEN string or placement field.
+     * @return The new board.
+     * @throws IllegalArgumentException if the placement is malformed.
+     */
+    public static ChessBoard fromFen(String fen) {
+        var board = new ChessBoard();
+        board.readPlacement(fen);
+        return board;
+    }
+
+    /**
+     * Gets the piece placement field of the board's FEN, such as
+     * <code>rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR</code>.
+     *
+     * @return The board's FEN placement.
+     */
+    public String toFen() {
+        return appendPlacement(new StringBuilder(72)).toString();
+    }
+
+    /**
+     * Replaces the board's pieces with the placement field at the start of a FEN string,
+     * scanning it in a single pass.
+     *
+     * @param fen The FEN string.
+     * @return The index just past the placement field.
+     * @throws IllegalArgumentException if the placement is malformed.
+     */
+    int readPlacement(String fen) {
+        clear();
+        int row = NUM_ROWS - 1;
+        int col = 0;
+        int i = 0;
+        for (; i < fen.length(); i++) {
+            char c = fen.charAt(i);
+            if (c == ' ') {
+                break;
+            }
+            if (c == '/') {
+                if (col != NUM_COLS || row == 0) {
+                    throw invalidFen(fen, i, "a row does not have 8 columns");
+                }
+                row--;
+                col = 0;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+                if (col > NUM_COLS) {
+                    throw invalidFen(fen, i, "a row has more than 8 columns");
+                }
+            } else {
+                int pieceIndex = (c < FEN_PIECE_INDICES.length) ? FEN_PIECE_INDICES[c] : NO_PIECE;
+                if (pieceIndex == NO_PIECE) {
+                    throw invalidFen(fen, i, "'" + c + "' is not a piece");
+                }
+                if (col == NUM_COLS) {
+                    throw invalidFen(fen, i, "a row has more than 8 columns");
+                }
+                setSquare(row * NUM_COLS + col, pieceIndex);
+                col++;
+            }
+        }
+        if (row != 0 || col != NUM_COLS) {
+            throw invalidFen(fen, i, "the placement does not cover 8 rows of 8 columns");
+        }
+        return i;
+    }
+
+    /**
+     * Appends the board's FEN placement field to a string builder.
+     *
+     * @param fen The builder to append to.
+     * @return fen, for convenience.
+     */
+    StringBuilder appendPlacement(StringBuilder fen) {
+        for (int row = NUM_ROWS - 1; row >= 0; row--) {
+            int emptySquares = 0;
+            for (int col = 0; col < NUM_COLS; col++) {
+                int pieceIndex = mailbox[row * NUM_COLS + col];
+                if (pieceIndex == NO_PIECE) {
+                    emptySquares++;
+                    continue;
+                }
+                if (emptySquares > 0) {
+                    fen.append((char) ('0' + emptySquares));
+                    emptySquares = 0;
+                }
+                fen.append(FEN_PIECES.charAt(pieceIndex));
+            }
+            if (emptySquares > 0) {
+                fen.append((char) ('0' + emptySquares));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+        return fen;
+    }
+
+    static IllegalArgumentException invalidFen(String fen, int index, String problem) {
+        return new IllegalArgumentException(String.format(
+                "Invalid FEN \"%s\" at index %d: %s", fen, index, problem
+        ));
     }
 
     /**
@@ -222,39 +581,155 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        var defaultBoard = new ChessPiece[8][8];
-
-        // Pawn rows
-        var whitePawns = defaultBoard[1];
-        var blackPawns = defaultBoard[6];
-        for (int i = 0; i < whitePawns.length; i++) {
-            whitePawns[i] = new ChessPiece(TeamColor.WHITE, PieceType.PAWN);
-            blackPawns[i] = new ChessPiece(TeamColor.BLACK, PieceType.PAWN);
-        }
+        clear();
 
-        // King + Elites rows
-        defaultBoard[0] = new ChessPiece[]{
-                new ChessPiece(TeamColor.WHITE, PieceType.ROOK),
-                new ChessPiece(TeamColor.WHITE, PieceType.KNIGHT),
-                new ChessPiece(TeamColor.WHITE, PieceType.BISHOP),
-                new ChessPiece(TeamColor.WHITE, PieceType.QUEEN),
-                new ChessPiece(TeamColor.WHITE, PieceType.KING),
-                new ChessPiece(TeamColor.WHITE, PieceType.BISHOP),
-                new ChessPiece(TeamColor.WHITE, PieceType.KNIGHT),
-                new ChessPiece(TeamColor.WHITE, PieceType.ROOK),
-        };
-        defaultBoard[7] = new ChessPiece[]{
-                new ChessPiece(TeamColor.BLACK, PieceType.ROOK),
-                new ChessPiece(TeamColor.BLACK, PieceType.KNIGHT),
-                new ChessPiece(TeamColor.BLACK, PieceType.BISHOP),
-                new ChessPiece(TeamColor.BLACK, PieceType.QUEEN),
-                new ChessPiece(TeamColor.BLACK, PieceType.KING),
-                new ChessPiece(TeamColor.BLACK, PieceType.BISHOP),
-                new ChessPiece(TeamColor.BLACK, PieceType.KNIGHT),
-                new ChessPiece(TeamColor.BLACK, PieceType.ROOK),
+        PieceType[] eliteRow = {
+                PieceType.ROOK, PieceType.KNIGHT, PieceType.BISHOP, PieceType.QUEEN,
+                PieceType.KING, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK,
         };
+        for (int c = 0; c < NUM_COLS; c++) {
+            // King + Elites rows
+            setSquare(c, pieceIndex(TeamColor.WHITE, eliteRow[c]));
+            setSquare(7 * NUM_COLS + c, pieceIndex(TeamColor.BLACK, eliteRow[c]));
+
+            // Pawn rows
+            setSquare(NUM_COLS + c, pieceIndex(TeamColor.WHITE, PieceType.PAWN));
+            setSquare(6 * NUM_COLS + c, pieceIndex(TeamColor.BLACK, PieceType.PAWN));
+        }
+    }
+
+    /**
+     * Gets the Zobrist key of the pieces on the board, which is kept up to date as pieces
+     * are added, removed and moved. Equal boards always have equal keys.
+     *
+     * @return The board's 64-bit Zobrist key.
+     */
+    public long zobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Gets the Zobrist key of the board's position with the given team to move, which is
+     * the key ChessGame.positionKey() reports and searches use to key their tables.
+     *
+     * @param teamTurn The team whose turn it is.
+     * @return The position's 64-bit key.
+     */
+    public long positionKey(TeamColor teamTurn) {
+        return (teamTurn == TeamColor.BLACK) ? zobristKey ^ Zobrist.BLACK_TO_MOVE : zobristKey;
+    }
+
+    /**
+     * Gets the board's evaluator, which is kept up to date as pieces are added, removed and
+     * moved, so evaluating the current position takes constant time.
+     *
+     * @return The board's evaluator.
+     */
+    public PositionEvaluator evaluator() {
+        return evaluator;
+    }
 
-        setBoard(defaultBoard);
+    /**
+     * Gets the piece index on a square.
+     *
+     * @param square The square index, from 0 to 63.
+     * @return The piece index on the square, or NO_PIECE if the square is empty.
+     */
+    public int pieceAt(int square) {
+        return mailbox[square];
+    }
+
+    /**
+     * Gets the bitboard of every square holding the given piece index.
+     *
+     * @param pieceIndex An index from 0 to 11.
+     * @return The piece's bitboard.
+     */
+    public long pieces(int pieceIndex) {
+        return pieceBitboards[pieceIndex];
+    }
+
+    /**
+     * Gets the bitboard of every square holding a piece of the given type and color.
+     *
+     * @param color The team color of the pieces.
+     * @param type  The type of the pieces.
+     * @return The pieces' bitboard.
+     */
+    public long pieces(TeamColor color, PieceType type) {
+        return pieceBitboards[pieceIndex(color, type)];
+    }
+
+    /**
+     * Gets the bitboard of every square occupied by the given team color.
+     *
+     * @param color The team color.
+     * @return The team's occupancy bitboard.
+     */
+    public long occupancy(TeamColor color) {
+        return colorBitboards[color.ordinal()];
+    }
+
+    /**
+     * Gets the bitboard of every occupied square.
+     *
+     * @return The board's occupancy bitboard.
+     */
+    public long occupancy() {
+        return occupied;
+    }
+
+    /**
+     * Puts a piece on an empty square, updating every bitboard.
+     *
+     * @param square     The square index, from 0 to 63.
+     * @param pieceIndex The piece index, from 0 to 11.
+     */
+    void setSquare(int square, int pieceIndex) {
+        long bit = 1L << square;
+        pieceBitboards[pieceIndex] |= bit;
+        colorBitboards[pieceIndex / NUM_PIECE_TYPES] |= bit;
+        occupied |= bit;
+        mailbox[square] = (byte) pieceIndex;
+        zobristKey ^= Zobrist.pieceSquare(pieceIndex, square);
+        evaluator.add(pieceIndex, square);
+    }
+
+    /**
+     * Removes whatever piece is on a square, updating every bitboard.
+     *
+     * @param square The square index, from 0 to 63.
+     */
+    void clearSquare(int square) {
+        int pieceIndex = mailbox[square];
+        if (pieceIndex == NO_PIECE) {
+            return;
+        }
+        long bit = 1L << square;
+        pieceBitboards[pieceIndex] &= ~bit;
+        colorBitboards[pieceIndex / NUM_PIECE_TYPES] &= ~bit;
+        occupied &= ~bit;
+        mailbox[square] = (byte) NO_PIECE;
+        zobristKey ^= Zobrist.pieceSquare(pieceIndex, square);
+        evaluator.remove(pieceIndex, square);
+    }
+
+    private void clear() {
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorBitboards, 0L);
+        occupied = 0L;
+        Arrays.fill(mailbox, (byte) NO_PIECE);
+        zobristKey = 0L;
+        evaluator.clear();
+    }
+
+    private int checkedSquareOf(ChessPosition position) {
+        if (!posInBounds(position)) {
+            throw new ArrayIndexOutOfBoundsException(
+                    String.format("The given position (%s) is located outside the chessboard's range.", position)
+            );
+        }
+        return squareOf(position);
     }
 
     @Override
@@ -263,12 +738,12 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        return zobristKey == that.zobristKey && Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(zobristKey);
     }
 
     @Override
@@ -276,10 +751,11 @@ public class ChessBoard {
         StringBuilder str = new StringBuilder("ChessBoard{");
 
         str.append("[");
-        for (ChessPiece[] pieceArr : board) {
+        for (int r = 0; r < NUM_ROWS; r++) {
             str.append("[");
-            for (ChessPiece piece : pieceArr) {
-                str.append((piece != null) ? piece.toString() : "null").append(", ");
+            for (int c = 0; c < NUM_COLS; c++) {
+                int pieceIndex = mailbox[r * NUM_COLS + c];
+                str.append((pieceIndex != NO_PIECE) ? PIECES[pieceIndex].toString() : "null").append(", ");
             }
             str.append("], ");
         }
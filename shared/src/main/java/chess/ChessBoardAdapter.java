@@ -0,0 +1,61 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Serializes a ChessBoard as its FEN piece placement, <code>{"fen": "rnbqkbnr/..."}</code>,
+ * which takes well under 100 bytes instead of a full <code>ChessPiece[8][8]</code> graph.
+ * <p>
+ * Boards stored in the older <code>{"board": ChessPiece[8][8]}</code> format (from when the
+ * board was backed by a two-dimensional array) can still be read.
+ */
+class ChessBoardAdapter implements TypeAdapterFactory {
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ChessBoard.class) {
+            return null;
+        }
+        TypeAdapter<ChessPiece[][]> arrayAdapter = gson.getAdapter(ChessPiece[][].class);
+
+        return (TypeAdapter<T>) new TypeAdapter<ChessBoard>() {
+            @Override
+            public void write(JsonWriter out, ChessBoard board) throws IOException {
+                if (board == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginObject();
+                out.name("fen").value(board.toFen());
+                out.endObject();
+            }
+
+            @Override
+            public ChessBoard read(JsonReader in) throws IOException {
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    return null;
+                }
+                var board = new ChessBoard();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "fen" -> board.readPlacement(in.nextString());
+                        case "board" -> board.setBoard(arrayAdapter.read(in));
+                        default -> in.skipValue();
+                    }
+                }
+                in.endObject();
+                return board;
+            }
+        };
+    }
+}
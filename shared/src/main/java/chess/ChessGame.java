@@ -1,11 +1,10 @@
 package chess;
 
-import chess.ChessPiece.PieceType;
 import chess.InvalidMoveException.InvalidMoveReason;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
-import java.util.Objects;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -16,6 +15,26 @@ import java.util.Objects;
 public class ChessGame {
     private ChessBoard board;
     private TeamColor teamTurn;
+    // Each team's legal moves in the current position, indexed by TeamColor ordinal
+    private transient LegalMoves[] legalMoves;
+    // Reused by the status checks after each move, so that they allocate nothing
+    private transient MoveGenerator moveGenerator;
+    // The keys of the positions since the last capture or pawn move, oldest first, for
+    // detecting repetitions
+    private KeyHistory keyHistory = new KeyHistory();
+    // The number of moves (plies) since the last capture or pawn move
+    private int halfmoveClock;
+    // Starts at 1 and goes up after each of Black's moves, as in FEN
+    private int fullmoveNumber = 1;
+    // The latest snapshot, and the moves made since it, from which snapshot() derives the next
+    private transient GameSnapshot snapshot;
+    private transient int[] movesSinceSnapshot;
+    private transient int movesSinceSnapshotCount;
+
+    /**
+     * The number of plies without a capture or pawn move after which the game is drawn.
+     */
+    public static final int FIFTY_MOVE_RULE_PLIES = 100;
 
     public enum WinState {
         IN_PROGRESS,
@@ -24,6 +43,8 @@ public class ChessGame {
         STALEMATE,
         WHITE_RESIGNED,
         BLACK_RESIGNED,
+        DRAW_BY_REPETITION,
+        DRAW_BY_FIFTY_MOVE_RULE,
     }
 
     private WinState winState = WinState.IN_PROGRESS;
@@ -44,6 +65,10 @@ public class ChessGame {
      *     <li><code>STALEMATE</code>: If both teams are in stalemate.</li>
      *     <li><code>WHITE_RESIGNED</code>: If White resigned.</li>
      *     <li><code>BLACK_RESIGNED</code>: If Black resigned.</li>
+     *     <li><code>DRAW_BY_REPETITION</code>: If the same position occurred three times with
+     *     the same team to move.</li>
+     *     <li><code>DRAW_BY_FIFTY_MOVE_RULE</code>: If fifty moves by each team passed without a
+     *     capture or pawn move.</li>
      * </ol>
      *
      * @return The current win state.
@@ -78,6 +103,7 @@ public class ChessGame {
      */
     public void setTeamTurn(TeamColor team) {
         teamTurn = team;
+        invalidateLegalMoves();
     }
 
     /**
@@ -88,6 +114,16 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Gets the team playing against the given team.
+     *
+     * @param teamColor The team color.
+     * @return The opposing team color.
+     */
+    static TeamColor opponentOf(TeamColor teamColor) {
+        return (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
     /**
      * Gets all valid moves for a piece at the given location
      *
@@ -96,41 +132,42 @@ public class ChessGame {
      * startPosition
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
-        Collection<ChessMove> validMoves = new HashSet<>();
-
         ChessPiece piece = board.getPiece(startPosition);
 
         if (piece == null) {
             return null;
         }
 
-        Collection<ChessMove> potentialMoves = piece.pieceMoves(board, startPosition);
-
-        // copy current state of board
-        ChessBoard boardClone = new ChessBoard(board);
-        TeamColor teamTurnClone = this.teamTurn;
-
-        // Validate all potential moves
-        for (ChessMove potentialMove : potentialMoves) {
-            // Test potential move and remove it if it is invalid
-            try {
-                tryMove(potentialMove, false);
-                validMoves.add(potentialMove);
-            } catch (InvalidMoveException e) {
-            } // Skip if the move doesn't work
+        return legalMoves(piece.getTeamColor()).addMovesFrom(ChessBoard.squareOf(startPosition), new HashSet<>());
+    }
 
-            // Reset board and team turn to before test move was made
-            board = new ChessBoard(boardClone);
-            teamTurn = teamTurnClone;
+    /**
+     * Gets a team's legal moves in the current position, generating them only on the first
+     * query after the position changes, so repeated validMoves() calls on one position
+     * share a single generation pass.
+     *
+     * @param teamColor The team to get legal moves for.
+     * @return The up-to-date cache of the team's legal moves.
+     */
+    private LegalMoves legalMoves(TeamColor teamColor) {
+        if (legalMoves == null) {
+            legalMoves = new LegalMoves[]{new LegalMoves(TeamColor.WHITE), new LegalMoves(TeamColor.BLACK)};
         }
+        return legalMoves[teamColor.ordinal()].update(board);
+    }
 
-        return validMoves;
+    private void invalidateLegalMoves() {
+        if (legalMoves != null) {
+            for (LegalMoves moves : legalMoves) {
+                moves.invalidate();
+            }
+        }
     }
 
     /**
      * Makes a move in a chess game.
      * <br><br>
-     * If the move is invalid, reverts the board to before the move was made and throws
+     * If the move is invalid, leaves the board as it was before the move and throws
      * an exception.
      *
      * @param move chess move to perform
@@ -144,19 +181,188 @@ public class ChessGame {
             );
         }
 
-        // Make a copy of the board's state
-        var boardClone = new ChessBoard(board);
-
-        // Try to make the move
-        try {
-            tryMove(move, true);
-            updateWinState();
-        } catch (InvalidMoveException e) {
-            // If move was invalid, reset the board and pass along the exception
-            board = new ChessBoard(boardClone);
-            throw e;
+        long key = positionKey();
+        boolean irreversible = isIrreversible(move);
+        if (isLegal(move)) {
+            board.doMove(move);
+            teamTurn = opponentOf(teamTurn);
+        } else {
+            // Only illegal moves take the slow path, which finds out why to report it
+            tryMove(move);
+        }
+        recordMove(key, irreversible);
+        invalidateLegalMoves();
+        updateWinState();
+        recordSnapshotMove(Move.of(move));
+    }
+
+    /**
+     * Determines whether a move is legal for the team whose turn it is, checking only that
+     * one move: that the piece can reach the end position, that the promotion piece is given
+     * exactly when a pawn reaches the last row, and that the move leaves the team's king out
+     * of check. Unlike <code>makeMove()</code>, this ignores whether the game has ended.
+     *
+     * @param move The move to check.
+     * @return true if the move is legal.
+     */
+    public boolean isLegal(ChessMove move) {
+        if (!board.posInBounds(move.getStartPosition()) || !board.posInBounds(move.getEndPosition())) {
+            return false;
+        }
+        return MoveGenerator.isLegal(board, teamTurn, Move.of(move));
+    }
+
+    /**
+     * Makes a move without validating it and passes the turn to the other team, so that
+     * it can be taken back with <code>undoMove()</code>. Neither method updates the win state.
+     * <br><br>
+     * This is intended for exploring positions (such as testing candidate moves), where
+     * the move is already known to be legal.
+     *
+     * @param move chess move to perform
+     */
+    public void doMove(ChessMove move) {
+        long key = positionKey();
+        boolean irreversible = isIrreversible(move);
+        board.doMove(move);
+        teamTurn = opponentOf(teamTurn);
+        recordMove(key, irreversible);
+        invalidateLegalMoves();
+        recordSnapshotMove(Move.of(move));
+    }
+
+    /**
+     * Takes back the most recent move made with <code>doMove()</code> or <code>makeMove()</code>,
+     * passing the turn back to the team that made it.
+     * <br><br>
+     * Positions before a capture or pawn move are not kept, so after taking back such a move
+     * the halfmove clock is 0 and earlier positions no longer count towards a repetition.
+     *
+     * @throws IllegalStateException if there are no moves to take back.
+     */
+    public void undoMove() {
+        board.undoMove();
+        teamTurn = opponentOf(teamTurn);
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber = Math.max(fullmoveNumber - 1, 1);
+        }
+        if (halfmoveClock > 0) {
+            halfmoveClock--;
+            keyHistory.removeLast();
+        }
+        invalidateLegalMoves();
+        if (movesSinceSnapshotCount > 0) {
+            movesSinceSnapshotCount--;
+        } else if (snapshot != null) {
+            snapshot = snapshot.previous();
+        }
+    }
+
+    /**
+     * Gets an immutable snapshot of the game's current state, which can be handed to other
+     * threads or kept as history while this game goes on changing.
+     * <br><br>
+     * Once a snapshot has been taken, the game notes each move made through it, and the next
+     * call derives one snapshot per move from the last one, copying only the 32-byte packed
+     * position and linking back to the previous snapshot. A chain of snapshots so shares its
+     * history instead of copying boards, and making moves allocates nothing until a snapshot
+     * is asked for. Changing the board directly breaks the chain; the next call then reads
+     * the whole board and starts a new one.
+     *
+     * @return The snapshot.
+     */
+    public GameSnapshot snapshot() {
+        GameSnapshot current = snapshot;
+        for (int i = 0; i < movesSinceSnapshotCount && current != null; i++) {
+            current = current.next(movesSinceSnapshot[i]);
+        }
+        movesSinceSnapshotCount = 0;
+
+        if (current == null || !current.matchesPosition(this)) {
+            current = GameSnapshot.of(this);
+        } else if (current.getWinState() != winState) {
+            current = current.withWinState(winState);
+        }
+        snapshot = current;
+        return current;
+    }
+
+    private void recordSnapshotMove(int move) {
+        if (snapshot == null) {
+            return;
+        }
+        if (movesSinceSnapshot == null) {
+            movesSinceSnapshot = new int[16];
+        } else if (movesSinceSnapshotCount == movesSinceSnapshot.length) {
+            movesSinceSnapshot = Arrays.copyOf(movesSinceSnapshot, movesSinceSnapshotCount * 2);
+        }
+        movesSinceSnapshot[movesSinceSnapshotCount++] = move;
+    }
+
+    /**
+     * Determines whether a move is a capture or pawn move, which resets the halfmove clock
+     * and means no earlier position can be repeated.
+     */
+    private boolean isIrreversible(ChessMove move) {
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        if (!board.posInBounds(start) || !board.posInBounds(end)) {
+            return false;
+        }
+        ChessPiece piece = board.getPiece(start);
+        return (piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN) || board.getPiece(end) != null;
+    }
+
+    /**
+     * Updates the move counters and position history after a move.
+     *
+     * @param previousKey  The key of the position before the move.
+     * @param irreversible Whether the move was a capture or pawn move.
+     */
+    private void recordMove(long previousKey, boolean irreversible) {
+        if (teamTurn == TeamColor.WHITE) {
+            fullmoveNumber++;
+        }
+        if (irreversible) {
+            halfmoveClock = 0;
+            keyHistory.clear();
+            return;
+        }
+
+        halfmoveClock++;
+        keyHistory.add(previousKey);
+    }
+
+    /**
+     * Counts how many times the current position has occurred, including now. Only positions
+     * since the last capture or pawn move can match, and only those with the same team to
+     * move, so this checks every other one of them.
+     *
+     * @return The number of occurrences, at least 1.
+     */
+    public int repetitionCount() {
+        long key = positionKey();
+        int count = 1;
+        for (int i = keyHistory.size() - 2; i >= 0; i -= 2) {
+            if (keyHistory.get(i) == key) {
+                count++;
+            }
         }
+        return count;
+    }
+
+    /**
+     * @return The number of moves (plies) made since the last capture or pawn move.
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
 
+    /**
+     * @return The FEN fullmove number: 1 at the start, going up after each of Black's moves.
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
     }
 
     /**
@@ -174,6 +380,10 @@ public class ChessGame {
             winState = WinState.WHITE_BEAT_BLACK;
         } else if (isInStalemate(getTeamTurn())) {
             winState = WinState.STALEMATE;
+        } else if (repetitionCount() >= 3) {
+            winState = WinState.DRAW_BY_REPETITION;
+        } else if (halfmoveClock >= FIFTY_MOVE_RULE_PLIES) {
+            winState = WinState.DRAW_BY_FIFTY_MOVE_RULE;
         } else {
             winState = WinState.IN_PROGRESS;
         }
@@ -182,8 +392,7 @@ public class ChessGame {
     /**
      * Tries to make a move and updates the current team's turn if successful.
      * <br><br>
-     * Does not revert the board if move is invalid,
-     * but will throw an exception.
+     * If the move is invalid, the board is left unchanged and an exception is thrown.
      * <br><br>
      * The move is invalid if:
      * <ul>
@@ -193,12 +402,10 @@ public class ChessGame {
      *     <li>Making the move puts the current team in check.</li>
      * </ul>
      *
-     * @param move              chess move to perform
-     * @param validateTeamColor if true, check to make sure the team color is correct
-     *                          and update teamTurn if move is successful
+     * @param move chess move to perform
      * @throws InvalidMoveException if move is invalid
      */
-    private void tryMove(ChessMove move, boolean validateTeamColor) throws InvalidMoveException {
+    private void tryMove(ChessMove move) throws InvalidMoveException {
         // Get start position and piece
         ChessPosition startPos = move.getStartPosition();
         ChessPiece piece = (board.posInBounds(startPos)) ?
@@ -213,9 +420,8 @@ public class ChessGame {
         }
 
         // Invalid if the piece's team color does not match the current team's color
-        // Only check this if validateTeamColor == true
         TeamColor pieceColor = piece.getTeamColor();
-        if (validateTeamColor && pieceColor != teamTurn) {
+        if (pieceColor != teamTurn) {
             throw new InvalidMoveException(String.format(
                     "Attempted to move %s piece %s on %s team's turn",
                     pieceColor, piece, teamTurn
@@ -227,16 +433,15 @@ public class ChessGame {
 
         // Invalid if making the move puts the current team in check
         if (isInCheck(pieceColor)) {
+            board.undoMove();
             throw new InvalidMoveException(String.format(
                     "Attempted a move with %s piece %s that would put their team in check",
                     pieceColor, piece
             ));
         }
 
-        // All checks have passed -> update teamTurn (only if validateTeamColor==true)
-        if (validateTeamColor) {
-            teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        }
+        // All checks have passed -> update teamTurn
+        teamTurn = opponentOf(teamTurn);
     }
 
     /**
@@ -246,27 +451,14 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        // Get position of king
-        ChessPosition kingPos = board.findFirstPiece(PieceType.KING, teamColor);
-
-        // Get all spaces occupied by opposing team color
-        TeamColor enemyTeam = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-        Collection<ChessPosition> enemyPositions = board.getOccupiedPositions(enemyTeam);
-
-        // Return true if any enemy piece can capture the king
-        for (ChessPosition pos : enemyPositions) {
-            ChessPiece piece = board.getPiece(pos);
-            Collection<ChessMove> pieceMoves = piece.pieceMoves(board, pos);
-            for (ChessMove pieceMove : pieceMoves) {
-                ChessPosition endPos = pieceMove.getEndPosition();
-                if (endPos.equals(kingPos)) {
-                    return true;
-                }
-            }
+        // No king -> nothing to put in check
+        int kingSquare = board.kingSquare(teamColor);
+        if (kingSquare == ChessBoard.NO_SQUARE) {
+            return false;
         }
 
-        // No pieces can capture the king -> return false
-        return false;
+        // In check if any enemy piece attacks the king's square
+        return board.isSquareAttacked(kingSquare, opponentOf(teamColor), board.occupancy());
     }
 
     /**
@@ -276,21 +468,8 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        // Not in check -> not in checkmate
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-
-        // Any valid moves -> not in checkmate
-        Collection<ChessPosition> teamPositions = board.getOccupiedPositions(teamColor);
-        for (ChessPosition pos : teamPositions) {
-            if (!validMoves(pos).isEmpty()) {
-                return false;
-            }
-        }
-
-        // No saving cases -> Team is in checkmate
-        return true;
+        // In check with no legal moves -> checkmate
+        return isInCheck(teamColor) && !hasAnyLegalMove(teamColor);
     }
 
     /**
@@ -301,21 +480,28 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        // In check -> not in stalemate
-        if (isInCheck(teamColor)) {
-            return false;
-        }
+        // Not in check with no legal moves -> stalemate
+        return !isInCheck(teamColor) && !hasAnyLegalMove(teamColor);
+    }
 
-        // Any valid moves -> not in stalemate
-        Collection<ChessPosition> teamPositions = board.getOccupiedPositions(teamColor);
-        for (ChessPosition pos : teamPositions) {
-            if (!validMoves(pos).isEmpty()) {
-                return false;
-            }
+    /**
+     * Determines if the given team has at least one legal move.
+     * <br><br>
+     * This stops at the first legal move it finds, trying the king first, so unlike
+     * validMoves() it does not generate every move. If the team's moves are already cached
+     * for the current position, the cache answers instead.
+     *
+     * @param teamColor which team to look for a legal move for
+     * @return True if the team can move, otherwise false
+     */
+    public boolean hasAnyLegalMove(TeamColor teamColor) {
+        if (legalMoves != null && legalMoves[teamColor.ordinal()].isCurrent(board)) {
+            return legalMoves[teamColor.ordinal()].hasAnyMoves();
         }
-
-        // No saving cases -> Team is in stalemate
-        return true;
+        if (moveGenerator == null) {
+            moveGenerator = new MoveGenerator(board);
+        }
+        return moveGenerator.reset(teamColor).hasAnyMoves();
     }
 
     /**
@@ -325,6 +511,109 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = new ChessBoard(board);
+        moveGenerator = null;
+        // Earlier positions were on a different board, so none of them can repeat
+        keyHistory.clear();
+        halfmoveClock = 0;
+        snapshot = null;
+        movesSinceSnapshotCount = 0;
+        invalidateLegalMoves();
+    }
+
+    /**
+     * Creates a game from a FEN string, such as
+     * <code>rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1</code>.
+     * <br><br>
+     * This game has no castling or en passant, so those fields are ignored. The team to move
+     * defaults to white and the move counters to 0 and 1 if they are left out.
+     *
+     * @param fen The FEN string.
+     * @return The new game, with its win state set from the position.
+     * @throws IllegalArgumentException if the FEN is malformed.
+     */
+    public static ChessGame fromFen(String fen) {
+        var game = new ChessGame();
+        int i = skipSpaces(fen, game.board.readPlacement(fen));
+
+        if (i < fen.length()) {
+            char turn = fen.charAt(i);
+            game.teamTurn = switch (turn) {
+                case 'w' -> TeamColor.WHITE;
+                case 'b' -> TeamColor.BLACK;
+                default -> throw ChessBoard.invalidFen(fen, i, "'" + turn + "' is not a team to move");
+            };
+            if (i + 1 < fen.length() && fen.charAt(i + 1) != ' ') {
+                throw ChessBoard.invalidFen(fen, i + 1, "the team to move is more than one letter");
+            }
+
+            // Skip the castling and en passant fields
+            i = skipField(fen, skipSpaces(fen, i + 1));
+            i = skipField(fen, skipSpaces(fen, i));
+
+            int start = skipSpaces(fen, i);
+            i = skipField(fen, start);
+            if (start < i) {
+                game.halfmoveClock = parseCounter(fen, start, i, 0);
+            }
+            start = skipSpaces(fen, i);
+            i = skipField(fen, start);
+            if (start < i) {
+                game.fullmoveNumber = parseCounter(fen, start, i, 1);
+            }
+            i = skipSpaces(fen, i);
+            if (i < fen.length()) {
+                throw ChessBoard.invalidFen(fen, i, "there are extra fields");
+            }
+        }
+
+        game.updateWinState();
+        return game;
+    }
+
+    private static int skipSpaces(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipField(String fen, int i) {
+        while (i < fen.length() && fen.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Parses the move counter in <code>fen[start, end)</code>, which must be all digits.
+     */
+    private static int parseCounter(String fen, int start, int end, int min) {
+        long counter = 0;
+        for (int i = start; i < end && counter <= Integer.MAX_VALUE; i++) {
+            char c = fen.charAt(i);
+            if (c < '0' || c > '9') {
+                counter = -1;
+                break;
+            }
+            counter = counter * 10 + (c - '0');
+        }
+        if (counter < min || counter > Integer.MAX_VALUE) {
+            throw ChessBoard.invalidFen(fen, start, "'" + fen.substring(start, end) + "' is not a move counter");
+        }
+        return (int) counter;
+    }
+
+    /**
+     * Gets the FEN string of the current position. The castling and en passant fields are
+     * always empty (<code>-</code>), since this game has neither.
+     *
+     * @return The position's FEN.
+     */
+    public String toFen() {
+        var fen = board.appendPlacement(new StringBuilder(80));
+        fen.append((teamTurn == TeamColor.WHITE) ? " w" : " b");
+        fen.append(" - - ").append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
     }
 
     /**
@@ -336,18 +625,31 @@ public class ChessGame {
         return board;
     }
 
+    /**
+     * Gets a 64-bit Zobrist key identifying the current position: the pieces on the board
+     * and the team whose turn it is. The key is maintained incrementally as moves are made,
+     * so this is a constant-time call suitable for keying position caches.
+     *
+     * @return The position's key.
+     */
+    public long positionKey() {
+        return board.positionKey(teamTurn);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return Objects.equals(board, chessGame.board) && teamTurn == chessGame.teamTurn;
+        return positionKey() == chessGame.positionKey() &&
+                teamTurn == chessGame.teamTurn &&
+                board.equals(chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, teamTurn);
+        return Long.hashCode(positionKey());
     }
 
     @Override
@@ -1,15 +1,63 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Collection;
 import java.util.Objects;
 
 /**
  * Represents a single chess piece
  * <p>
+ * Pieces are immutable, so <code>ChessPiece.of()</code> hands out one shared instance per
+ * team color and piece type instead of allocating a new piece each time.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPieceAdapter.class)
 public class ChessPiece {
+    private static final ChessPiece[][] PIECES = new ChessPiece[2][PieceType.values().length];
+
+    // The move rules for each piece type, indexed by PieceType ordinal. Sliders use the
+    // magic bitboard tables; kings and knights step through their move offsets.
+    private static final Rule[] RULES = {
+            // KING
+            new BasicRule(
+                    new int[][]{
+                            {1, -1}, {1, 0}, {1, 1},
+                            {0, -1}, {0, 1},
+                            {-1, -1}, {-1, 0}, {-1, 1},
+                    },
+                    false
+            ),
+            // QUEEN
+            new SliderRule(PieceType.QUEEN),
+            // BISHOP
+            new SliderRule(PieceType.BISHOP),
+            // KNIGHT
+            new BasicRule(
+                    new int[][]{
+                            {2, -1}, {2, 1},
+                            {1, -2}, {1, 2},
+                            {-1, -2}, {-1, 2},
+                            {-2, -1}, {-2, 1},
+                    },
+                    false
+            ),
+            // ROOK
+            new SliderRule(PieceType.ROOK),
+            // PAWN
+            new PawnRule(),
+    };
+
+    static {
+        for (ChessGame.TeamColor teamColor : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[teamColor.ordinal()][type.ordinal()] = new ChessPiece(teamColor, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor teamColor;
     private final ChessPiece.PieceType type;
 
@@ -18,6 +66,17 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Gets the shared instance of a chess piece.
+     *
+     * @param teamColor The team the piece belongs to.
+     * @param type      The type of piece.
+     * @return The canonical ChessPiece for the team color and type.
+     */
+    public static ChessPiece of(ChessGame.TeamColor teamColor, ChessPiece.PieceType type) {
+        return PIECES[teamColor.ordinal()][type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
@@ -52,49 +111,25 @@ public class ChessPiece {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition pos) {
-        PieceType pieceType = getPieceType();
-        Rule rule = switch (pieceType) {
-            case KING -> new BasicRule(
-                    new int[][]{
-                            {1, -1}, {1, 0}, {1, 1},
-                            {0, -1}, {0, 1},
-                            {-1, -1}, {-1, 0}, {-1, 1},
-                    },
-                    false
-            );
-            case QUEEN -> new BasicRule(
-                    new int[][]{
-                            {1, -1}, {1, 0}, {1, 1},
-                            {0, -1}, {0, 1},
-                            {-1, -1}, {-1, 0}, {-1, 1},
-                    }
-            );
-            case BISHOP -> new BasicRule(
-                    new int[][]{
-                            {1, -1}, {1, 1},
-                            {-1, -1}, {-1, 1},
-                    }
-            );
-            case KNIGHT -> new BasicRule(
-                    new int[][]{
-                            {2, -1}, {2, 1},
-                            {1, -2}, {1, 2},
-                            {-1, -2}, {-1, 2},
-                            {-2, -1}, {-2, 1},
-                    },
-                    false
-            );
-            case ROOK -> new BasicRule(
-                    new int[][]{
-                            {1, 0},
-                            {0, -1}, {0, 1},
-                            {-1, 0},
-                    }
-            );
-            case PAWN -> new PawnRule();
-        };
+        return rule().getMoves(board, pos, getTeamColor());
+    }
+
+    /**
+     * Calculates all the moves a chess piece can make, appending them to a move list as
+     * encoded moves (see <code>Move</code>).
+     * Does not take into account moves that are illegal due to leaving the king in
+     * danger
+     *
+     * @param board  The chessboard.
+     * @param square The square index of the piece.
+     * @param moves  The list to append the moves to.
+     */
+    public void pieceMoves(ChessBoard board, int square, MoveList moves) {
+        rule().getMoves(board, square, getTeamColor(), moves);
+    }
 
-        return rule.getMoves(board, pos, getTeamColor());
+    private Rule rule() {
+        return RULES[type.ordinal()];
     }
 
     @Override
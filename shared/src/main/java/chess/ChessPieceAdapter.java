@@ -0,0 +1,50 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Serializes a ChessPiece as <code>{"teamColor": ..., "type": ...}</code>, and deserializes it
+ * to the shared instance from <code>ChessPiece.of()</code> rather than a new object.
+ */
+class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
+    @Override
+    public void write(JsonWriter out, ChessPiece piece) throws IOException {
+        if (piece == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("teamColor").value(piece.getTeamColor().name());
+        out.name("type").value(piece.getPieceType().name());
+        out.endObject();
+    }
+
+    @Override
+    public ChessPiece read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        TeamColor teamColor = null;
+        PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "teamColor" -> teamColor = TeamColor.valueOf(in.nextString());
+                case "type" -> type = PieceType.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        // Pieces missing a field can't be shared, so fall back to a new instance
+        return (teamColor != null && type != null) ? ChessPiece.of(teamColor, type) : new ChessPiece(teamColor, type);
+    }
+}
@@ -1,14 +1,31 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.Objects;
 
 /**
  * Represents a single square position on a chess board
  * <p>
+ * Positions are immutable, so <code>ChessPosition.of()</code> hands out one shared instance
+ * per square on the board instead of allocating a new position each time.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
+@JsonAdapter(ChessPositionAdapter.class)
 public class ChessPosition {
+    private static final int BOARD_SIZE = 8;
+    private static final ChessPosition[][] POSITIONS = new ChessPosition[BOARD_SIZE][BOARD_SIZE];
+
+    static {
+        for (int r = 0; r < BOARD_SIZE; r++) {
+            for (int c = 0; c < BOARD_SIZE; c++) {
+                POSITIONS[r][c] = new ChessPosition(r + 1, c + 1);
+            }
+        }
+    }
+
     private final int row, col;
 
     public ChessPosition(int row, int col) {
@@ -16,6 +33,21 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance of a position. Positions off the board are not shared,
+     * so a new instance is returned for them.
+     *
+     * @param row The row, where 1 codes for the bottom row.
+     * @param col The column, where 1 codes for the left column.
+     * @return The canonical ChessPosition for the row and column.
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > BOARD_SIZE || col < 1 || col > BOARD_SIZE) {
+            return new ChessPosition(row, col);
+        }
+        return POSITIONS[row - 1][col - 1];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -0,0 +1,265 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessGame.WinState;
+import chess.ChessPiece.PieceType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An immutable view of a game at one moment: the pieces, the team to move, the win state and
+ * the move counters. Snapshots are safe to hand to other threads, since nothing can change
+ * them, and are cheap to keep, so they suit broadcasting, persistence and replay.
+ * <p>
+ * The pieces are packed into one <code>int</code> per row, four bits per square, so a
+ * position is 32 bytes and the next position after a move only copies that. Each snapshot
+ * taken after a move links to the one before it, so a chain of snapshots shares all of its
+ * history rather than copying it, and can be walked back with <code>previous()</code>.
+ * <p>
+ * Use <code>ChessGame.snapshot()</code> to get one.
+ */
+public final class GameSnapshot {
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+    private static final int BITS_PER_SQUARE = 4;
+    private static final int SQUARE_MASK = (1 << BITS_PER_SQUARE) - 1;
+
+    // Each row's squares, column 1 in the low bits; 0 is empty, otherwise the piece index plus one
+    private final int[] rows;
+    private final TeamColor teamTurn;
+    private final WinState winState;
+    private final long positionKey;
+    private final int halfmoveClock;
+    private final int fullmoveNumber;
+    private final GameSnapshot previous;
+    private final int lastMove;
+
+    private GameSnapshot(int[] rows, TeamColor teamTurn, WinState winState, long positionKey,
+                         int halfmoveClock, int fullmoveNumber, GameSnapshot previous, int lastMove) {
+        this.rows = rows;
+        this.teamTurn = teamTurn;
+        this.winState = winState;
+        this.positionKey = positionKey;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        this.previous = previous;
+        this.lastMove = lastMove;
+    }
+
+    /**
+     * Takes a snapshot of a game by reading its whole board, with no history.
+     */
+    static GameSnapshot of(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int[] rows = new int[ChessBoard.NUM_ROWS];
+        for (long pieces = board.occupancy(); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            rows[square / ChessBoard.NUM_COLS] |= (board.pieceAt(square) + 1) << shiftOf(square);
+        }
+        return new GameSnapshot(rows, game.getTeamTurn(), game.getWinState(), game.positionKey(),
+                game.getHalfmoveClock(), game.getFullmoveNumber(), null, Move.NONE);
+    }
+
+    /**
+     * Gets the snapshot after a move, working out the new key, turn and move counters from
+     * this snapshot alone. Only the packed rows are copied; the history is shared. The win
+     * state is carried over, since only the game knows whether the move ended it.
+     *
+     * @param move The encoded move.
+     * @return The new snapshot, or null if this snapshot has no piece to make the move.
+     */
+    GameSnapshot next(int move) {
+        int start = Move.startSquare(move);
+        int end = Move.endSquare(move);
+        int code = codeAt(start);
+        if (code == 0) {
+            return null;
+        }
+        int piece = code - 1;
+        int captured = codeAt(end) - 1;
+        int placed = piece;
+        int promotionType = Move.promotionType(move);
+        if (promotionType != ChessBoard.NO_PIECE) {
+            placed = (piece / ChessBoard.NUM_PIECE_TYPES) * ChessBoard.NUM_PIECE_TYPES + promotionType;
+        }
+
+        long nextKey = positionKey ^ Zobrist.BLACK_TO_MOVE ^
+                Zobrist.pieceSquare(piece, start) ^ Zobrist.pieceSquare(placed, end);
+        if (captured != ChessBoard.NO_PIECE) {
+            nextKey ^= Zobrist.pieceSquare(captured, end);
+        }
+        boolean irreversible = captured != ChessBoard.NO_PIECE ||
+                piece % ChessBoard.NUM_PIECE_TYPES == PieceType.PAWN.ordinal();
+
+        int[] nextRows = rows.clone();
+        nextRows[start / ChessBoard.NUM_COLS] &= ~(SQUARE_MASK << shiftOf(start));
+        nextRows[end / ChessBoard.NUM_COLS] &= ~(SQUARE_MASK << shiftOf(end));
+        nextRows[end / ChessBoard.NUM_COLS] |= (placed + 1) << shiftOf(end);
+        return new GameSnapshot(nextRows, ChessGame.opponentOf(teamTurn), winState, nextKey,
+                irreversible ? 0 : halfmoveClock + 1,
+                (teamTurn == TeamColor.BLACK) ? fullmoveNumber + 1 : fullmoveNumber, this, move);
+    }
+
+    /**
+     * Gets a copy of this snapshot with a different win state, sharing its position and history.
+     */
+    GameSnapshot withWinState(WinState newWinState) {
+        return new GameSnapshot(rows, teamTurn, newWinState, positionKey, halfmoveClock, fullmoveNumber,
+                previous, lastMove);
+    }
+
+    /**
+     * Determines whether this snapshot still describes a game's current position and move
+     * counters. The win state can change without a move, so it is checked separately.
+     */
+    boolean matchesPosition(ChessGame game) {
+        return positionKey == game.positionKey() && halfmoveClock == game.getHalfmoveClock() &&
+                fullmoveNumber == game.getFullmoveNumber();
+    }
+
+    private static int shiftOf(int square) {
+        return (square % ChessBoard.NUM_COLS) * BITS_PER_SQUARE;
+    }
+
+    private int codeAt(int square) {
+        return (rows[square / ChessBoard.NUM_COLS] >>> shiftOf(square)) & SQUARE_MASK;
+    }
+
+    /**
+     * Gets the piece on a square.
+     *
+     * @param position A position on the board.
+     * @return The piece, or null if the square is empty.
+     */
+    public ChessPiece getPiece(ChessPosition position) {
+        int code = codeAt(ChessBoard.squareOf(position));
+        if (code == 0) {
+            return null;
+        }
+        int piece = code - 1;
+        return ChessPiece.of(TeamColor.values()[piece / ChessBoard.NUM_PIECE_TYPES],
+                PIECE_TYPES[piece % ChessBoard.NUM_PIECE_TYPES]);
+    }
+
+    /**
+     * @return The team whose turn it is.
+     */
+    public TeamColor getTeamTurn() {
+        return teamTurn;
+    }
+
+    /**
+     * @return The game's win state at the time of the snapshot.
+     */
+    public WinState getWinState() {
+        return winState;
+    }
+
+    /**
+     * @return The position's key, as from <code>ChessGame.positionKey()</code>.
+     */
+    public long positionKey() {
+        return positionKey;
+    }
+
+    /**
+     * @return The number of moves (plies) since the last capture or pawn move.
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return The FEN fullmove number.
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * @return The snapshot before the last move, or null if this one was taken without history.
+     */
+    public GameSnapshot previous() {
+        return previous;
+    }
+
+    /**
+     * @return The move that led from <code>previous()</code> to this snapshot, or null if there
+     * is no previous snapshot.
+     */
+    public ChessMove lastMove() {
+        return (lastMove != Move.NONE) ? Move.toChessMove(lastMove) : null;
+    }
+
+    /**
+     * Gets the moves that led to this snapshot, as far back as its history goes.
+     *
+     * @return The moves, oldest first.
+     */
+    public List<ChessMove> moveHistory() {
+        List<ChessMove> moves = new ArrayList<>();
+        for (GameSnapshot snapshot = this; snapshot.previous != null; snapshot = snapshot.previous) {
+            moves.add(Move.toChessMove(snapshot.lastMove));
+        }
+        Collections.reverse(moves);
+        return moves;
+    }
+
+    /**
+     * Creates a new, mutable board with this snapshot's pieces.
+     *
+     * @return The board.
+     */
+    public ChessBoard toBoard() {
+        var board = new ChessBoard();
+        for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+            ChessPosition position = ChessBoard.positionOf(square);
+            ChessPiece piece = getPiece(position);
+            if (piece != null) {
+                board.addPiece(position, piece);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Gets the FEN string of the snapshot's position, as from <code>ChessGame.toFen()</code>.
+     *
+     * @return The FEN.
+     */
+    public String toFen() {
+        var fen = toBoard().appendPlacement(new StringBuilder(80));
+        fen.append((teamTurn == TeamColor.WHITE) ? " w" : " b");
+        fen.append(" - - ").append(halfmoveClock).append(' ').append(fullmoveNumber);
+        return fen.toString();
+    }
+
+    /**
+     * Compares the state captured by two snapshots, ignoring their history.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GameSnapshot that = (GameSnapshot) o;
+        return positionKey == that.positionKey && halfmoveClock == that.halfmoveClock &&
+                fullmoveNumber == that.fullmoveNumber && teamTurn == that.teamTurn &&
+                winState == that.winState && Arrays.equals(rows, that.rows);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(positionKey);
+    }
+
+    @Override
+    public String toString() {
+        return "GameSnapshot{" +
+                "fen=" + toFen() +
+                ", winState=" + winState +
+                '}';
+    }
+}
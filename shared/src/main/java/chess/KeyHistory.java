@@ -0,0 +1,42 @@
+package chess;
+
+import com.google.gson.annotations.JsonAdapter;
+
+import java.util.Arrays;
+
+/**
+ * The Zobrist keys of a game's positions since the last capture or pawn move, oldest first,
+ * for detecting repetitions. Keys are kept in a growable array so that adding one allocates
+ * nothing once the array is large enough, and only the keys in use are serialized.
+ */
+@JsonAdapter(KeyHistoryAdapter.class)
+class KeyHistory {
+    private long[] keys = new long[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long get(int index) {
+        return keys[index];
+    }
+
+    void add(long key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, 2 * keys.length);
+        }
+        keys[size++] = key;
+    }
+
+    /**
+     * Removes the newest key, if there is one.
+     */
+    void removeLast() {
+        size = Math.max(size - 1, 0);
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,42 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Serializes a KeyHistory as an array of the keys in use, oldest first, leaving out the
+ * spare capacity and any keys left over from before the history was last cleared.
+ */
+class KeyHistoryAdapter extends TypeAdapter<KeyHistory> {
+    @Override
+    public void write(JsonWriter out, KeyHistory history) throws IOException {
+        if (history == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginArray();
+        for (int i = 0; i < history.size(); i++) {
+            out.value(history.get(i));
+        }
+        out.endArray();
+    }
+
+    @Override
+    public KeyHistory read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        var history = new KeyHistory();
+        in.beginArray();
+        while (in.hasNext()) {
+            history.add(in.nextLong());
+        }
+        in.endArray();
+        return history;
+    }
+}
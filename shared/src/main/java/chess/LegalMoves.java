@@ -0,0 +1,82 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+
+import java.util.Collection;
+
+/**
+ * A lazily computed cache of one team's legal moves in a board position.
+ * <p>
+ * The cache remembers the Zobrist key of the board it was computed for, so it recomputes
+ * itself whenever the board has changed since (even if the board was modified directly
+ * rather than through ChessGame). ChessGame also invalidates it whenever it makes a move or
+ * its board or turn is replaced.
+ */
+class LegalMoves {
+    private final TeamColor team;
+    private final MoveList moves = new MoveList(64);
+    private MoveGenerator generator;
+    private ChessBoard generatorBoard;
+    private boolean valid;
+    private long boardKey;
+
+    LegalMoves(TeamColor team) {
+        this.team = team;
+    }
+
+    void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Brings the cache up to date with a board, generating the team's moves only if the
+     * board's position differs from the one the cache holds.
+     *
+     * @param board The board to get the team's legal moves on.
+     * @return this, for convenience.
+     */
+    LegalMoves update(ChessBoard board) {
+        if (isCurrent(board)) {
+            return this;
+        }
+
+        if (generatorBoard != board) {
+            generator = new MoveGenerator(board);
+            generatorBoard = board;
+        }
+        moves.clear();
+        generator.reset(team).generate(moves);
+        boardKey = board.zobristKey();
+        valid = true;
+        return this;
+    }
+
+    /**
+     * @param board A board.
+     * @return true if the cache holds the team's moves for the board's current position.
+     */
+    boolean isCurrent(ChessBoard board) {
+        return valid && boardKey == board.zobristKey();
+    }
+
+    boolean hasAnyMoves() {
+        return !moves.isEmpty();
+    }
+
+    /**
+     * Adds every cached legal move starting on a square to a collection.
+     *
+     * @param square The start square.
+     * @param out    The collection to add the moves to.
+     * @return out, for convenience.
+     */
+    <C extends Collection<ChessMove>> C addMovesFrom(int square, C out) {
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.startSquare(move) == square) {
+                out.add(Move.toChessMove(move));
+            }
+        }
+        return out;
+    }
+}
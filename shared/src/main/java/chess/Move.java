@@ -0,0 +1,163 @@
+package chess;
+
+import chess.ChessPiece.PieceType;
+
+/**
+ * Encodes a chess move as a single <code>int</code>, so that move lists can be stored in
+ * primitive arrays instead of allocating a ChessMove and two ChessPositions per move.
+ * <p>
+ * Layout (low bits first): start square (6 bits), end square (6 bits), promotion piece
+ * (3 bits: 0 for none, otherwise the PieceType ordinal plus one), and flags. Squares are
+ * numbered as in ChessBoard, from 0 (row 1, column 1) to 63 (row 8, column 8).
+ * <p>
+ * The flags describe the move in the position it was generated for and are not part of
+ * the move's identity; use <code>sameMove()</code> to compare moves.
+ */
+public final class Move {
+    /**
+     * Flag set on moves that capture a piece.
+     */
+    public static final int CAPTURE = 1 << 15;
+
+    /**
+     * A value that is never a valid move.
+     */
+    public static final int NONE = 0;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final int IDENTITY_MASK = (1 << 15) - 1;
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private Move() {
+    }
+
+    /**
+     * Encodes a move.
+     *
+     * @param startSquare   The square the piece moves from.
+     * @param endSquare     The square the piece moves to.
+     * @param promotionType The ordinal of the PieceType to promote to, or ChessBoard.NO_PIECE.
+     * @param flags         Any combination of the flag constants.
+     * @return The encoded move.
+     */
+    public static int encode(int startSquare, int endSquare, int promotionType, int flags) {
+        return startSquare | (endSquare << 6) | ((promotionType + 1) << 12) | flags;
+    }
+
+    /**
+     * Encodes a ChessMove, without flags.
+     *
+     * @param move A move whose positions are on the board.
+     * @return The encoded move.
+     */
+    public static int of(ChessMove move) {
+        PieceType promotionPiece = move.getPromotionPiece();
+        return encode(
+                ChessBoard.squareOf(move.getStartPosition()),
+                ChessBoard.squareOf(move.getEndPosition()),
+                (promotionPiece != null) ? promotionPiece.ordinal() : ChessBoard.NO_PIECE,
+                0
+        );
+    }
+
+    public static int startSquare(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int endSquare(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @return The ordinal of the PieceType to promote to, or ChessBoard.NO_PIECE.
+     */
+    public static int promotionType(int move) {
+        return ((move >>> 12) & PROMOTION_MASK) - 1;
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    /**
+     * Determines whether two encoded moves are the same move, ignoring their flags.
+     */
+    public static boolean sameMove(int a, int b) {
+        return ((a ^ b) & IDENTITY_MASK) == 0;
+    }
+
+    /**
+     * Decodes a move into a ChessMove.
+     *
+     * @param move The encoded move.
+     * @return A new ChessMove.
+     */
+    public static ChessMove toChessMove(int move) {
+        int promotionType = promotionType(move);
+        return new ChessMove(
+                ChessBoard.positionOf(startSquare(move)),
+                ChessBoard.positionOf(endSquare(move)),
+                (promotionType != ChessBoard.NO_PIECE) ? PIECE_TYPES[promotionType] : null
+        );
+    }
+
+    /**
+     * Formats a move for debugging, such as "e7e8q".
+     */
+    public static String toString(int move) {
+        var str = new StringBuilder(5);
+        appendSquare(str, startSquare(move));
+        appendSquare(str, endSquare(move));
+        int promotionType = promotionType(move);
+        if (promotionType != ChessBoard.NO_PIECE) {
+            str.append(switch (PIECE_TYPES[promotionType]) {
+                case QUEEN -> 'q';
+                case BISHOP -> 'b';
+                case KNIGHT -> 'n';
+                case ROOK -> 'r';
+                case KING -> 'k';
+                case PAWN -> 'p';
+            });
+        }
+        return str.toString();
+    }
+
+    /**
+     * Parses a move in the coordinate notation <code>toString()</code> produces, such as
+     * "e2e4" or "e7e8q".
+     *
+     * @param str The move's text.
+     * @return The encoded move, without flags.
+     * @throws IllegalArgumentException if the text is not a move in coordinate notation.
+     */
+    public static int parse(String str) {
+        if (str.length() != 4 && str.length() != 5) {
+            throw new IllegalArgumentException("Not a move: \"" + str + "\"");
+        }
+        int promotionType = ChessBoard.NO_PIECE;
+        if (str.length() == 5) {
+            promotionType = switch (str.charAt(4)) {
+                case 'q' -> PieceType.QUEEN.ordinal();
+                case 'b' -> PieceType.BISHOP.ordinal();
+                case 'n' -> PieceType.KNIGHT.ordinal();
+                case 'r' -> PieceType.ROOK.ordinal();
+                default -> throw new IllegalArgumentException("Not a promotion piece in move \"" + str + "\"");
+            };
+        }
+        return encode(parseSquare(str, 0), parseSquare(str, 2), promotionType, 0);
+    }
+
+    private static int parseSquare(String str, int index) {
+        int col = str.charAt(index) - 'a';
+        int row = str.charAt(index + 1) - '1';
+        if (col < 0 || col >= ChessBoard.NUM_COLS || row < 0 || row >= ChessBoard.NUM_ROWS) {
+            throw new IllegalArgumentException("Not a square in move \"" + str + "\": " + str.substring(index, index + 2));
+        }
+        return row * ChessBoard.NUM_COLS + col;
+    }
+
+    private static void appendSquare(StringBuilder str, int square) {
+        str.append((char) ('a' + square % ChessBoard.NUM_COLS)).append((char) ('1' + square / ChessBoard.NUM_COLS));
+    }
+}
@@ -0,0 +1,363 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.util.Collection;
+
+/**
+ * Generates strictly legal moves for one team on a chessboard, without trying moves and
+ * testing for check afterward.
+ * <p>
+ * On construction, the generator finds the pieces giving check to the team's king and the
+ * team's pieces that are pinned to it. From those it derives:
+ * <ul>
+ *     <li>A check mask: the squares a non-king piece may move to. This is every square when
+ *     not in check, the checker and the squares between it and the king when in single
+ *     check, and no squares when in double check.</li>
+ *     <li>Pin rays: a pinned piece may only move along the line through it and its king.</li>
+ *     <li>King moves: the king may only move to squares the enemy does not attack once the
+ *     king has left its current square.</li>
+ * </ul>
+ * If the team has no king, every pseudo-legal move is legal.
+ * <p>
+ * A generator is bound to one board and can be <code>reset()</code> for each new position,
+ * so searches keep one per ply rather than allocating them.
+ */
+public class MoveGenerator {
+    static final PieceType[] PROMOTION_PIECES = {
+            PieceType.QUEEN, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK
+    };
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    private final ChessBoard board;
+    private TeamColor team;
+    private TeamColor enemy;
+    private int kingSquare;
+    private long checkers;
+    private long checkMask;
+    private long pinned;
+
+    public MoveGenerator(ChessBoard board, TeamColor team) {
+        this.board = board;
+        reset(team);
+    }
+
+    /**
+     * Creates a generator that must be <code>reset()</code> before use. A search can keep one
+     * generator per ply and reset it for each position instead of allocating new ones.
+     *
+     * @param board The board to generate moves on.
+     */
+    public MoveGenerator(ChessBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * Recomputes the checkers and pinned pieces for a team in the board's current position.
+     *
+     * @param team The team to generate moves for.
+     * @return this, for convenience.
+     */
+    public MoveGenerator reset(TeamColor team) {
+        this.team = team;
+        this.enemy = ChessGame.opponentOf(team);
+
+        kingSquare = board.kingSquare(team);
+        if (kingSquare == ChessBoard.NO_SQUARE) {
+            checkers = 0L;
+            checkMask = -1L;
+            pinned = 0L;
+            return this;
+        }
+
+        long occupancy = board.occupancy();
+        long enemyQueens = board.pieces(enemy, PieceType.QUEEN);
+        long enemyStraight = board.pieces(enemy, PieceType.ROOK) | enemyQueens;
+        long enemyDiagonal = board.pieces(enemy, PieceType.BISHOP) | enemyQueens;
+
+        checkers = (Attacks.pawn(team.ordinal(), kingSquare) & board.pieces(enemy, PieceType.PAWN)) |
+                (Attacks.knight(kingSquare) & board.pieces(enemy, PieceType.KNIGHT)) |
+                (Attacks.rook(kingSquare, occupancy) & enemyStraight) |
+                (Attacks.bishop(kingSquare, occupancy) & enemyDiagonal);
+
+        if (checkers == 0) {
+            checkMask = -1L;
+        } else if ((checkers & (checkers - 1)) == 0) {
+            int checker = Long.numberOfTrailingZeros(checkers);
+            checkMask = checkers | Attacks.between(kingSquare, checker);
+        } else {
+            checkMask = 0L;
+        }
+
+        // A piece is pinned if it is the only piece between the king and an enemy slider
+        // that would otherwise see the king along that slider's lines
+        long snipers = (Attacks.rook(kingSquare, 0L) & enemyStraight) |
+                (Attacks.bishop(kingSquare, 0L) & enemyDiagonal);
+        long pinnedPieces = 0L;
+        for (long bits = snipers; bits != 0; bits &= bits - 1) {
+            long blockers = Attacks.between(kingSquare, Long.numberOfTrailingZeros(bits)) & occupancy;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0) {
+                pinnedPieces |= blockers & board.occupancy(team);
+            }
+        }
+        pinned = pinnedPieces;
+        return this;
+    }
+
+    /**
+     * @return true if the team's king is in check.
+     */
+    public boolean inCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * Adds every legal move for the team's piece on a square to a collection.
+     *
+     * @param square The square of one of the team's pieces.
+     * @param moves  The collection to add the moves to.
+     * @return moves, for convenience.
+     */
+    Collection<ChessMove> addMovesFrom(int square, Collection<ChessMove> moves) {
+        var moveList = new MoveList(32);
+        addMovesFrom(square, moveList);
+        return moveList.addTo(moves);
+    }
+
+    /**
+     * Appends every legal move for the team's piece on a square to a move list.
+     *
+     * @param square The square of one of the team's pieces.
+     * @param moves  The list to append the encoded moves to.
+     */
+    public void addMovesFrom(int square, MoveList moves) {
+        long targets = targetsFrom(square);
+        long enemyPieces = board.occupancy(enemy);
+        boolean promotes = promotes(square, targets);
+
+        for (long bits = targets; bits != 0; bits &= bits - 1) {
+            int end = Long.numberOfTrailingZeros(bits);
+            int flags = ((enemyPieces & (1L << end)) != 0) ? Move.CAPTURE : 0;
+            if (promotes) {
+                for (PieceType promotionPiece : PROMOTION_PIECES) {
+                    moves.add(Move.encode(square, end, promotionPiece.ordinal(), flags));
+                }
+            } else {
+                moves.add(Move.encode(square, end, ChessBoard.NO_PIECE, flags));
+            }
+        }
+    }
+
+    /**
+     * Appends every legal move for the team to a move list.
+     *
+     * @param moves The list to append the encoded moves to.
+     */
+    public void generate(MoveList moves) {
+        for (long bits = board.occupancy(team); bits != 0; bits &= bits - 1) {
+            addMovesFrom(Long.numberOfTrailingZeros(bits), moves);
+        }
+    }
+
+    /**
+     * Appends the team's legal captures and promotions to a move list, the moves a
+     * quiescence search considers.
+     *
+     * @param moves The list to append the encoded moves to.
+     */
+    public void generateCaptures(MoveList moves) {
+        long enemyPieces = board.occupancy(enemy);
+        for (long pieces = board.occupancy(team); pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            long targets = targetsFrom(square);
+            boolean promotes = promotes(square, targets);
+            if (!promotes) {
+                targets &= enemyPieces;
+            }
+
+            for (; targets != 0; targets &= targets - 1) {
+                int end = Long.numberOfTrailingZeros(targets);
+                int flags = ((enemyPieces & (1L << end)) != 0) ? Move.CAPTURE : 0;
+                if (promotes) {
+                    for (PieceType promotionPiece : PROMOTION_PIECES) {
+                        moves.add(Move.encode(square, end, promotionPiece.ordinal(), flags));
+                    }
+                } else {
+                    moves.add(Move.encode(square, end, ChessBoard.NO_PIECE, flags));
+                }
+            }
+        }
+    }
+
+    /**
+     * Determines whether the team has at least one legal move, stopping at the first one found.
+     *
+     * @return true if the team can move; false otherwise.
+     */
+    public boolean hasAnyMoves() {
+        if (kingSquare != ChessBoard.NO_SQUARE && targetsFrom(kingSquare) != 0) {
+            return true;
+        }
+        for (long bits = board.occupancy(team); bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            if (square != kingSquare && targetsFrom(square) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the team's legal moves, counting each promotion choice as a separate move.
+     *
+     * @return The number of legal moves.
+     */
+    public int countMoves() {
+        int count = 0;
+        for (long bits = board.occupancy(team); bits != 0; bits &= bits - 1) {
+            int square = Long.numberOfTrailingZeros(bits);
+            long targets = targetsFrom(square);
+            int moves = Long.bitCount(targets);
+            count += promotes(square, targets) ? moves * PROMOTION_PIECES.length : moves;
+        }
+        return count;
+    }
+
+    /**
+     * Determines whether moving the piece on a square to the given targets promotes it.
+     * A pawn's targets are always on a single row, so this is all or nothing.
+     *
+     * @param square  The square of one of the team's pieces.
+     * @param targets The piece's legal targets, from <code>targetsFrom()</code>.
+     * @return true if every move to the targets is a promotion.
+     */
+    boolean promotes(int square, long targets) {
+        return (targets & promotionRow()) != 0 &&
+                board.pieceAt(square) == ChessBoard.pieceIndex(team, PieceType.PAWN);
+    }
+
+    /**
+     * Gets every square the team's piece on a square can legally move to.
+     *
+     * @param square The square of one of the team's pieces.
+     * @return The bitboard of legal destination squares.
+     */
+    long targetsFrom(int square) {
+        if (square == kingSquare) {
+            return kingTargets();
+        }
+
+        long occupancy = board.occupancy();
+        long targets = switch (PIECE_TYPES[board.pieceAt(square) % ChessBoard.NUM_PIECE_TYPES]) {
+            case KING -> Attacks.king(square);
+            case QUEEN -> Attacks.queen(square, occupancy);
+            case BISHOP -> Attacks.bishop(square, occupancy);
+            case KNIGHT -> Attacks.knight(square);
+            case ROOK -> Attacks.rook(square, occupancy);
+            case PAWN -> pawnTargets(board, team, square, occupancy);
+        };
+        targets &= ~board.occupancy(team) & checkMask;
+
+        if ((pinned & (1L << square)) != 0) {
+            targets &= Attacks.line(kingSquare, square);
+        }
+        return targets;
+    }
+
+    private long kingTargets() {
+        // Take the king off the board so that sliders checking it also attack the squares behind it
+        long occupancy = board.occupancy() & ~(1L << kingSquare);
+        long targets = 0L;
+        for (long bits = Attacks.king(kingSquare) & ~board.occupancy(team); bits != 0; bits &= bits - 1) {
+            int target = Long.numberOfTrailingZeros(bits);
+            if (!board.isSquareAttacked(target, enemy, occupancy)) {
+                targets |= 1L << target;
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Determines whether a single move is legal for a team, without finding the team's
+     * checks and pins. The move must be one the piece can make on the board as it stands
+     * (including a promotion piece exactly when a pawn reaches the last row), and the team's
+     * king must not be attacked once it is made.
+     * <br><br>
+     * This costs a few table lookups, so it suits validating one move, while a generator
+     * suits finding all of them.
+     *
+     * @param board The board.
+     * @param team  The team making the move.
+     * @param move  The encoded move.
+     * @return true if the move is legal.
+     */
+    public static boolean isLegal(ChessBoard board, TeamColor team, int move) {
+        int start = Move.startSquare(move);
+        int end = Move.endSquare(move);
+        int piece = board.pieceAt(start);
+        if (piece == ChessBoard.NO_PIECE || piece / ChessBoard.NUM_PIECE_TYPES != team.ordinal()) {
+            return false;
+        }
+
+        long occupancy = board.occupancy();
+        long endBit = 1L << end;
+        PieceType type = PIECE_TYPES[piece % ChessBoard.NUM_PIECE_TYPES];
+        long targets = switch (type) {
+            case KING -> Attacks.king(start);
+            case QUEEN -> Attacks.queen(start, occupancy);
+            case BISHOP -> Attacks.bishop(start, occupancy);
+            case KNIGHT -> Attacks.knight(start);
+            case ROOK -> Attacks.rook(start, occupancy);
+            case PAWN -> pawnTargets(board, team, start, occupancy);
+        };
+        if ((targets & endBit & ~board.occupancy(team)) == 0) {
+            return false;
+        }
+
+        int promotionType = Move.promotionType(move);
+        boolean promotes = type == PieceType.PAWN && (endBit & promotionRow(team)) != 0;
+        if (promotes) {
+            if (promotionType == ChessBoard.NO_PIECE || promotionType == PieceType.KING.ordinal() ||
+                    promotionType == PieceType.PAWN.ordinal()) {
+                return false;
+            }
+        } else if (promotionType != ChessBoard.NO_PIECE) {
+            return false;
+        }
+
+        // Legal unless an enemy piece other than a captured one attacks the king afterward
+        int kingSquare = (type == PieceType.KING) ? end : board.kingSquare(team);
+        if (kingSquare == ChessBoard.NO_SQUARE) {
+            return true;
+        }
+        long occupancyAfter = (occupancy & ~(1L << start)) | endBit;
+        long enemies = board.occupancy(ChessGame.opponentOf(team)) & ~endBit;
+        return (board.attackersTo(kingSquare, occupancyAfter) & enemies) == 0;
+    }
+
+    private static long pawnTargets(ChessBoard board, TeamColor team, int square, long occupancy) {
+        long targets = Attacks.pawn(team.ordinal(), square) & board.occupancy(ChessGame.opponentOf(team));
+
+        int forward = (team == TeamColor.WHITE) ? ChessBoard.NUM_COLS : -ChessBoard.NUM_COLS;
+        int startRow = (team == TeamColor.WHITE) ? 1 : ChessBoard.NUM_ROWS - 2;
+        int singlePush = square + forward;
+        if (singlePush >= 0 && singlePush < ChessBoard.NUM_SQUARES && (occupancy & (1L << singlePush)) == 0) {
+            targets |= 1L << singlePush;
+
+            int doublePush = singlePush + forward;
+            if (square / ChessBoard.NUM_COLS == startRow && (occupancy & (1L << doublePush)) == 0) {
+                targets |= 1L << doublePush;
+            }
+        }
+        return targets;
+    }
+
+    private long promotionRow() {
+        return promotionRow(team);
+    }
+
+    private static long promotionRow(TeamColor team) {
+        return (team == TeamColor.WHITE) ? 0xFF00000000000000L : 0xFFL;
+    }
+}
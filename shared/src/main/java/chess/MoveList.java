@@ -0,0 +1,116 @@
+package chess;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A reusable, growable buffer of moves encoded with <code>Move</code>. Callers that generate
+ * moves repeatedly (such as searches) keep one list per ply and <code>clear()</code> it,
+ * so generating moves does not allocate.
+ */
+public class MoveList {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces the move at an index, such as when reordering moves in place.
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Determines whether the list holds a move, ignoring move flags.
+     *
+     * @param move The encoded move to look for.
+     * @return true if an equivalent move is in the list.
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.sameMove(moves[i], move)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Decodes every move into a collection of ChessMoves.
+     *
+     * @param out The collection to add the moves to.
+     * @return out, for convenience.
+     */
+    public <C extends Collection<ChessMove>> C addTo(C out) {
+        for (int i = 0; i < size; i++) {
+            out.add(Move.toChessMove(moves[i]));
+        }
+        return out;
+    }
+
+    /**
+     * Gets a read-only view of the list as ChessMoves, decoded as they are accessed.
+     * The view reflects later changes to the list.
+     *
+     * @return The view.
+     */
+    public List<ChessMove> asChessMoves() {
+        return new AbstractList<>() {
+            @Override
+            public ChessMove get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException(index);
+                }
+                return Move.toChessMove(moves[index]);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        var str = new StringBuilder("MoveList{");
+        for (int i = 0; i < size; i++) {
+            str.append((i > 0) ? ", " : "").append(Move.toString(moves[i]));
+        }
+        return str.append("}").toString();
+    }
+}
@@ -3,18 +3,15 @@ package chess;
 import chess.ChessGame.TeamColor;
 import chess.ChessPiece.PieceType;
 
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.function.Consumer;
-
 public class PawnRule implements Rule {
     private final PieceType[] promotionPieces = {
             PieceType.QUEEN, PieceType.BISHOP, PieceType.KNIGHT, PieceType.ROOK
     };
+    private static final int[] DIAGONAL_DIRS = {-1, 1};
 
     /**
      * Checks all potential moves a pawn can make and adds all the valid moves
-     * to validMoves, a collection used by AbstractRule.getMoves().
+     * to the given move list.
      * Checks for the following cases:
      * <ul>
      *     <li><b>Forward one space</b> (space must be free)</li>
@@ -23,66 +20,64 @@ public class PawnRule implements Rule {
      *     <li><b>Pawn promotion</b> (tested in all cases above)</li>
      * <ul/>
      * @param board The chessboard.
-     * @param pos The current position of the pawn.
+     * @param square The square index of the pawn.
      * @param teamColor The team color the pawn belongs to.
+     * @param moves The list to append the moves to.
      */
     @Override
-    public Collection<ChessMove> getMoves(
-            ChessBoard board, ChessPosition pos, TeamColor teamColor
-    ) {
-        var validMoves = new HashSet<ChessMove>();
+    public void getMoves(ChessBoard board, int square, TeamColor teamColor, MoveList moves) {
+        int row = square / ChessBoard.NUM_COLS;
+        int col = square % ChessBoard.NUM_COLS;
 
         // Get promotion row from team color
-        int promotionRow = (teamColor == TeamColor.WHITE) ? board.numRows() : 1;
+        int promotionRow = (teamColor == TeamColor.WHITE) ? ChessBoard.NUM_ROWS - 1 : 0;
 
         // Get move direction from team color
         int forwardDir = (teamColor == TeamColor.WHITE) ? 1 : -1;
 
-        // Lambda used to add all piece promotion possibilities when updating validMoves
-        Consumer<ChessPosition> tryPromotion = (newPos) -> {
-            if (newPos.getRow() == promotionRow) {
-                for (PieceType promotionPiece : promotionPieces) {
-                    validMoves.add(new ChessMove(pos, newPos, promotionPiece));
-                }
-            } else {
-                validMoves.add(new ChessMove(pos, newPos));
-            }
-        };
-
         // Check straight ahead
-        var forwardPos = new ChessPosition(pos.getRow() + forwardDir, pos.getColumn());
-        if (board.posInBounds(forwardPos) && board.getPiece(forwardPos) == null) {
-            tryPromotion.accept(forwardPos);
+        int forwardRow = row + forwardDir;
+        if (forwardRow < 0 || forwardRow >= ChessBoard.NUM_ROWS) {
+            return;
+        }
+        int forwardSquare = forwardRow * ChessBoard.NUM_COLS + col;
+        if (board.pieceAt(forwardSquare) == ChessBoard.NO_PIECE) {
+            addMove(moves, square, forwardSquare, forwardRow == promotionRow, 0);
 
             // If on first move, check two spaces ahead
-            if (
-                    pos.getRow() == ((teamColor == TeamColor.WHITE) ?
-                            2 :
-                            board.numRows() - 1)
-            ) {
-                var doubleForward = new ChessPosition(pos.getRow() + 2 * forwardDir, pos.getColumn());
-                if (board.posInBounds(doubleForward) && board.getPiece(doubleForward) == null) {
-                    tryPromotion.accept(doubleForward);
+            if (row == ((teamColor == TeamColor.WHITE) ? 1 : ChessBoard.NUM_ROWS - 2)) {
+                int doubleForwardSquare = forwardSquare + forwardDir * ChessBoard.NUM_COLS;
+                if (board.pieceAt(doubleForwardSquare) == ChessBoard.NO_PIECE) {
+                    addMove(moves, square, doubleForwardSquare, false, 0);
                 }
             }
         }
 
         // Check capture diagonal spaces
-        int[] diagonalDirs = {-1, 1};
-        for (int diagonalDir : diagonalDirs) {
-            var diagonalPos = new ChessPosition(
-                    pos.getRow() + forwardDir, pos.getColumn() + diagonalDir
-            );
-
-            if (board.posInBounds(diagonalPos) &&
-                    board.getPiece(diagonalPos) != null &&
-                    board.getPiece(diagonalPos).getTeamColor() != teamColor
-            ) {
-                tryPromotion.accept(diagonalPos);
+        for (int diagonalDir : DIAGONAL_DIRS) {
+            int diagonalCol = col + diagonalDir;
+            if (diagonalCol < 0 || diagonalCol >= ChessBoard.NUM_COLS) {
+                continue;
+            }
+            int diagonalSquare = forwardSquare + diagonalDir;
+            int thatPiece = board.pieceAt(diagonalSquare);
+            if (thatPiece != ChessBoard.NO_PIECE && thatPiece / ChessBoard.NUM_PIECE_TYPES != teamColor.ordinal()) {
+                addMove(moves, square, diagonalSquare, forwardRow == promotionRow, Move.CAPTURE);
             }
         }
+    }
 
-        return validMoves;
+    /**
+     * Adds a move to the list, or one move per promotion piece if the move promotes.
+     */
+    private void addMove(MoveList moves, int square, int newSquare, boolean promotes, int flags) {
+        if (promotes) {
+            for (PieceType promotionPiece : promotionPieces) {
+                moves.add(Move.encode(square, newSquare, promotionPiece.ordinal(), flags));
+            }
+        } else {
+            moves.add(Move.encode(square, newSquare, ChessBoard.NO_PIECE, flags));
+        }
     }
 
     @Override
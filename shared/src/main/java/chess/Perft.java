@@ -0,0 +1,282 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree from a position to a fixed depth ("perft").
+ * Comparing the counts against known values verifies the move generator, and timing them
+ * measures its throughput.
+ * <p>
+ * Moves are made and taken back in place on a copy of the game's board, so the game passed
+ * in is never modified. The parallel variants split the root moves across a ForkJoinPool,
+ * giving each task its own copy of the board.
+ */
+public class Perft {
+    private Perft() {
+    }
+
+    /**
+     * The outcome of a timed perft run.
+     *
+     * @param nodes       The number of leaf nodes counted.
+     * @param nanoseconds How long the count took.
+     */
+    public record Result(long nodes, long nanoseconds) {
+        /**
+         * @return The number of leaf nodes counted per second.
+         */
+        public long nodesPerSecond() {
+            return (nanoseconds > 0) ? (long) (nodes * 1e9 / nanoseconds) : 0;
+        }
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree from a game's current position.
+     *
+     * @param game  The game to count from.
+     * @param depth The number of plies to search.
+     * @return The number of positions reached at the given depth.
+     */
+    public static long perft(ChessGame game, int depth) {
+        return perft(new ChessBoard(game.getBoard()), game.getTeamTurn(), depth);
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree, splitting the root moves across a pool.
+     *
+     * @param game  The game to count from.
+     * @param depth The number of plies to search.
+     * @param pool  The pool to run the root moves on.
+     * @return The number of positions reached at the given depth.
+     */
+    public static long perft(ChessGame game, int depth, ForkJoinPool pool) {
+        long nodes = 0;
+        for (long count : divide(game, depth, pool).values()) {
+            nodes += count;
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below each legal root move, which narrows down which move a
+     * wrong perft count comes from.
+     *
+     * @param game  The game to count from.
+     * @param depth The number of plies to search, including the root move.
+     * @return Each legal root move and the number of positions reached through it.
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        var board = new ChessBoard(game.getBoard());
+        TeamColor team = game.getTeamTurn();
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (ChessMove move : rootMoves(board, team)) {
+            board.doMove(move);
+            counts.put(move, perft(board, ChessGame.opponentOf(team), depth - 1));
+            board.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the leaf nodes below each legal root move, running the root moves in parallel.
+     *
+     * @param game  The game to count from.
+     * @param depth The number of plies to search, including the root move.
+     * @param pool  The pool to run the root moves on.
+     * @return Each legal root move and the number of positions reached through it.
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth, ForkJoinPool pool) {
+        var board = game.getBoard();
+        TeamColor team = game.getTeamTurn();
+
+        List<RootMoveTask> tasks = new ArrayList<>();
+        for (ChessMove move : rootMoves(board, team)) {
+            tasks.add(new RootMoveTask(board, team, move, depth - 1));
+        }
+        for (RootMoveTask task : tasks) {
+            pool.execute(task);
+        }
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (RootMoveTask task : tasks) {
+            counts.put(task.move, task.join());
+        }
+        return counts;
+    }
+
+    /**
+     * Runs and times perft, in parallel if a pool is given.
+     *
+     * @param game  The game to count from.
+     * @param depth The number of plies to search.
+     * @param pool  The pool to run the root moves on, or null to run on the calling thread.
+     * @return The node count and the time it took.
+     */
+    public static Result timedPerft(ChessGame game, int depth, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        long nodes = (pool != null) ? perft(game, depth, pool) : perft(game, depth);
+        return new Result(nodes, System.nanoTime() - start);
+    }
+
+    static long perft(ChessBoard board, TeamColor team, int depth) {
+        // One generator per ply, reused for every position at that ply
+        var generators = new MoveGenerator[Math.max(depth, 1)];
+        for (int i = 0; i < generators.length; i++) {
+            generators[i] = new MoveGenerator(board);
+        }
+        return perft(board, team, depth, generators);
+    }
+
+    private static long perft(ChessBoard board, TeamColor team, int depth, MoveGenerator[] generators) {
+        if (depth <= 0) {
+            return 1;
+        }
+        var moveGenerator = generators[depth - 1].reset(team);
+        if (depth == 1) {
+            return moveGenerator.countMoves();
+        }
+
+        TeamColor enemy = ChessGame.opponentOf(team);
+        long nodes = 0;
+        for (long pieces = board.occupancy(team); pieces != 0; pieces &= pieces - 1) {
+            int start = Long.numberOfTrailingZeros(pieces);
+            long targets = moveGenerator.targetsFrom(start);
+            boolean promotes = moveGenerator.promotes(start, targets);
+
+            for (; targets != 0; targets &= targets - 1) {
+                int end = Long.numberOfTrailingZeros(targets);
+                if (promotes) {
+                    for (var promotionPiece : MoveGenerator.PROMOTION_PIECES) {
+                        board.doMove(start, end, promotionPiece.ordinal());
+                        nodes += perft(board, enemy, depth - 1, generators);
+                        board.undoMove();
+                    }
+                } else {
+                    board.doMove(start, end, ChessBoard.NO_PIECE);
+                    nodes += perft(board, enemy, depth - 1, generators);
+                    board.undoMove();
+                }
+            }
+        }
+        return nodes;
+    }
+
+    private static List<ChessMove> rootMoves(ChessBoard board, TeamColor team) {
+        var moveGenerator = new MoveGenerator(board, team);
+        List<ChessMove> moves = new ArrayList<>();
+        for (long pieces = board.occupancy(team); pieces != 0; pieces &= pieces - 1) {
+            moveGenerator.addMovesFrom(Long.numberOfTrailingZeros(pieces), moves);
+        }
+        return moves;
+    }
+
+    private static class RootMoveTask extends RecursiveTask<Long> {
+        private final ChessBoard board;
+        private final TeamColor team;
+        private final ChessMove move;
+        private final int depth;
+
+        RootMoveTask(ChessBoard board, TeamColor team, ChessMove move, int depth) {
+            this.board = new ChessBoard(board);
+            this.team = team;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            board.doMove(move);
+            return perft(board, ChessGame.opponentOf(team), depth);
+        }
+    }
+
+    /**
+     * Runs perft from the command line.
+     * <pre>
+     * Perft [--threads N] [--divide] &lt;depth&gt; [position]
+     * Perft [--threads N] --suite [max depth]
+     * </pre>
+     * The position is the name of a PerftPosition or a quoted FEN string, and defaults to START. The suite runs
+     * every reference position up to its deepest known count (or the given max depth)
+     * and reports any count that does not match.
+     */
+    public static void main(String[] args) {
+        int threads = 0;
+        boolean divide = false;
+        boolean suite = false;
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--divide" -> divide = true;
+                case "--suite" -> suite = true;
+                default -> positional.add(args[i]);
+            }
+        }
+        if (!suite && positional.isEmpty()) {
+            System.out.println("Usage: Perft [--threads N] [--divide] <depth> [position]");
+            System.out.println("       Perft [--threads N] --suite [max depth]");
+            return;
+        }
+
+        ForkJoinPool pool = (threads > 0) ? new ForkJoinPool(threads) : null;
+        try {
+            if (suite) {
+                int maxDepth = positional.isEmpty() ? Integer.MAX_VALUE : Integer.parseInt(positional.get(0));
+                runSuite(maxDepth, pool);
+            } else {
+                int depth = Integer.parseInt(positional.get(0));
+                String position = (positional.size() > 1) ? positional.get(1) : PerftPosition.START.name();
+                ChessGame game = position.contains("/") ?
+                        ChessGame.fromFen(position) :
+                        PerftPosition.valueOf(position.toUpperCase()).toGame();
+                runPosition(game, depth, divide, pool);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static void runPosition(ChessGame game, int depth, boolean divide, ForkJoinPool pool) {
+        if (divide) {
+            var counts = (pool != null) ? divide(game, depth, pool) : divide(game, depth);
+            counts.forEach((move, nodes) -> System.out.printf("%s: %d%n", move, nodes));
+            System.out.printf("Moves: %d%n", counts.size());
+        }
+        Result result = timedPerft(game, depth, pool);
+        System.out.printf("Depth %d: %d nodes in %d ms (%d nodes/sec)%n",
+                depth, result.nodes(), result.nanoseconds() / 1_000_000, result.nodesPerSecond());
+    }
+
+    private static void runSuite(int maxDepth, ForkJoinPool pool) {
+        long totalNodes = 0;
+        long totalNanoseconds = 0;
+        int failures = 0;
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            for (int depth = 1; depth <= Math.min(maxDepth, position.maxDepth()); depth++) {
+                Result result = timedPerft(game, depth, pool);
+                long expected = position.expectedNodes(depth);
+                boolean passed = result.nodes() == expected;
+                failures += passed ? 0 : 1;
+                totalNodes += result.nodes();
+                totalNanoseconds += result.nanoseconds();
+                System.out.printf("%-18s depth %d: %10d nodes %s%n",
+                        position, depth, result.nodes(), passed ? "ok" : "FAILED (expected " + expected + ")");
+            }
+        }
+        var total = new Result(totalNodes, totalNanoseconds);
+        System.out.printf("Total: %d nodes in %d ms (%d nodes/sec), %d failed%n",
+                total.nodes(), total.nanoseconds() / 1_000_000, total.nodesPerSecond(), failures);
+    }
+}
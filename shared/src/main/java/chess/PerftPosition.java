@@ -0,0 +1,65 @@
+package chess;
+
+/**
+ * Reference positions for perft, with their expected node counts by depth.
+ * <p>
+ * These are well-known move generator test positions, but the counts are for this
+ * project's rules, which have no castling or en passant. They were produced by the
+ * original try-every-move implementation of <code>ChessGame.validMoves()</code>, so they
+ * differ from published counts wherever those special moves come into play.
+ */
+public enum PerftPosition {
+    START("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1",
+            20, 400, 8902, 197281, 4865351),
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w - - 0 1",
+            46, 1865, 86585, 3499358),
+    ROOK_ENDGAME("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            14, 191, 2810, 43087, 671300),
+    PROMOTIONS("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w - - 0 1",
+            6, 258, 9217, 404404),
+    DISCOVERED_CHECKS("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w - - 0 1",
+            43, 1452, 59922, 2018609),
+    MIDDLEGAME("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 1",
+            46, 2079, 89890, 3894594);
+
+    private final String fen;
+    private final long[] expectedNodes;
+
+    PerftPosition(String fen, long... expectedNodes) {
+        this.fen = fen;
+        this.expectedNodes = expectedNodes;
+    }
+
+    /**
+     * @return The position's FEN string.
+     */
+    public String fen() {
+        return fen;
+    }
+
+    /**
+     * @return The deepest depth with a known node count.
+     */
+    public int maxDepth() {
+        return expectedNodes.length;
+    }
+
+    /**
+     * Gets the expected perft node count at a depth.
+     *
+     * @param depth A depth from 1 to <code>maxDepth()</code>.
+     * @return The number of leaf nodes at that depth.
+     */
+    public long expectedNodes(int depth) {
+        return expectedNodes[depth - 1];
+    }
+
+    /**
+     * Creates a new game set up at this position.
+     *
+     * @return The new game.
+     */
+    public ChessGame toGame() {
+        return ChessGame.fromFen(fen);
+    }
+}
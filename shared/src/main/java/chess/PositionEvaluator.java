@@ -0,0 +1,224 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+/**
+ * Scores a position from its material and where each piece stands, with separate midgame
+ * and endgame values that are blended by how much material is left (a tapered evaluation).
+ * <p>
+ * Each ChessBoard owns one evaluator and updates it whenever a piece is put on or taken off
+ * a square, including when moves are made and taken back. The sums are therefore always
+ * current, and <code>evaluate()</code> is a few arithmetic operations rather than a walk
+ * over the board.
+ */
+public final class PositionEvaluator {
+    // Material by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] MIDGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+
+    // How much each piece type counts toward the game phase; the full starting set is MAX_PHASE
+    private static final int[] PHASE_WEIGHTS = {0, 4, 1, 1, 2, 0};
+    private static final int MAX_PHASE = 24;
+
+    // Piece-square tables from white's point of view, laid out as the board is drawn:
+    // the first line is row 8 and the last is row 1. Indexed by PieceType ordinal.
+    private static final int[][] MIDGAME_SQUARES = {
+            // KING
+            {
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -30, -40, -40, -50, -50, -40, -40, -30,
+                    -20, -30, -30, -40, -40, -30, -30, -20,
+                    -10, -20, -20, -20, -20, -20, -20, -10,
+                    20, 20, 0, 0, 0, 0, 20, 20,
+                    20, 30, 10, 0, 0, 10, 30, 20,
+            },
+            // QUEEN
+            {
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 5, 5, 5, 0, -10,
+                    -5, 0, 5, 5, 5, 5, 0, -5,
+                    0, 0, 5, 5, 5, 5, 0, -5,
+                    -10, 5, 5, 5, 5, 5, 0, -10,
+                    -10, 0, 5, 0, 0, 0, 0, -10,
+                    -20, -10, -10, -5, -5, -10, -10, -20,
+            },
+            // BISHOP
+            {
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+                    -10, 0, 0, 0, 0, 0, 0, -10,
+                    -10, 0, 5, 10, 10, 5, 0, -10,
+                    -10, 5, 5, 10, 10, 5, 5, -10,
+                    -10, 0, 10, 10, 10, 10, 0, -10,
+                    -10, 10, 10, 10, 10, 10, 10, -10,
+                    -10, 5, 0, 0, 0, 0, 5, -10,
+                    -20, -10, -10, -10, -10, -10, -10, -20,
+            },
+            // KNIGHT
+            {
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+                    -40, -20, 0, 0, 0, 0, -20, -40,
+                    -30, 0, 10, 15, 15, 10, 0, -30,
+                    -30, 5, 15, 20, 20, 15, 5, -30,
+                    -30, 0, 15, 20, 20, 15, 0, -30,
+                    -30, 5, 10, 15, 15, 10, 5, -30,
+                    -40, -20, 0, 5, 5, 0, -20, -40,
+                    -50, -40, -30, -30, -30, -30, -40, -50,
+            },
+            // ROOK
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    5, 10, 10, 10, 10, 10, 10, 5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    -5, 0, 0, 0, 0, 0, 0, -5,
+                    0, 0, 0, 5, 5, 0, 0, 0,
+            },
+            // PAWN
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    10, 10, 20, 30, 30, 20, 10, 10,
+                    5, 5, 10, 25, 25, 10, 5, 5,
+                    0, 0, 0, 20, 20, 0, 0, 0,
+                    5, -5, -10, 0, 0, -10, -5, 5,
+                    5, 10, 10, -20, -20, 10, 10, 5,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+            },
+    };
+
+    // In the endgame the king should head for the center and pawns race to promote
+    private static final int[][] ENDGAME_SQUARES = {
+            // KING
+            {
+                    -50, -40, -30, -20, -20, -30, -40, -50,
+                    -30, -20, -10, 0, 0, -10, -20, -30,
+                    -30, -10, 20, 30, 30, 20, -10, -30,
+                    -30, -10, 30, 40, 40, 30, -10, -30,
+                    -30, -10, 30, 40, 40, 30, -10, -30,
+                    -30, -10, 20, 30, 30, 20, -10, -30,
+                    -30, -30, 0, 0, 0, 0, -30, -30,
+                    -50, -30, -30, -30, -30, -30, -30, -50,
+            },
+            MIDGAME_SQUARES[PieceType.QUEEN.ordinal()],
+            MIDGAME_SQUARES[PieceType.BISHOP.ordinal()],
+            MIDGAME_SQUARES[PieceType.KNIGHT.ordinal()],
+            MIDGAME_SQUARES[PieceType.ROOK.ordinal()],
+            // PAWN
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    80, 80, 80, 80, 80, 80, 80, 80,
+                    50, 50, 50, 50, 50, 50, 50, 50,
+                    30, 30, 30, 30, 30, 30, 30, 30,
+                    20, 20, 20, 20, 20, 20, 20, 20,
+                    10, 10, 10, 10, 10, 10, 10, 10,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    0, 0, 0, 0, 0, 0, 0, 0,
+            },
+    };
+
+    // Material plus square bonus for every piece index on every square, positive for white
+    // and negative for black, so that updates are a single lookup
+    private static final int[][] MIDGAME = new int[2 * ChessBoard.NUM_PIECE_TYPES][ChessBoard.NUM_SQUARES];
+    private static final int[][] ENDGAME = new int[2 * ChessBoard.NUM_PIECE_TYPES][ChessBoard.NUM_SQUARES];
+    private static final int[] PHASE = new int[2 * ChessBoard.NUM_PIECE_TYPES];
+
+    static {
+        for (int type = 0; type < ChessBoard.NUM_PIECE_TYPES; type++) {
+            int white = type;
+            int black = ChessBoard.NUM_PIECE_TYPES + type;
+            for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+                // Squares count up from row 1, but the tables start at row 8, so white flips rows
+                MIDGAME[white][square] = MIDGAME_VALUES[type] + MIDGAME_SQUARES[type][square ^ 56];
+                ENDGAME[white][square] = ENDGAME_VALUES[type] + ENDGAME_SQUARES[type][square ^ 56];
+                MIDGAME[black][square] = -(MIDGAME_VALUES[type] + MIDGAME_SQUARES[type][square]);
+                ENDGAME[black][square] = -(ENDGAME_VALUES[type] + ENDGAME_SQUARES[type][square]);
+            }
+            PHASE[white] = PHASE_WEIGHTS[type];
+            PHASE[black] = PHASE_WEIGHTS[type];
+        }
+    }
+
+    private int midgame;
+    private int endgame;
+    private int phase;
+
+    PositionEvaluator() {
+    }
+
+    PositionEvaluator(PositionEvaluator other) {
+        midgame = other.midgame;
+        endgame = other.endgame;
+        phase = other.phase;
+    }
+
+    /**
+     * Gets the material value of a piece type in the midgame, for ordering captures and
+     * judging exchanges.
+     *
+     * @param type The piece type.
+     * @return The value in centipawns (0 for the king).
+     */
+    public static int pieceValue(PieceType type) {
+        return MIDGAME_VALUES[type.ordinal()];
+    }
+
+    void add(int pieceIndex, int square) {
+        midgame += MIDGAME[pieceIndex][square];
+        endgame += ENDGAME[pieceIndex][square];
+        phase += PHASE[pieceIndex];
+    }
+
+    void remove(int pieceIndex, int square) {
+        midgame -= MIDGAME[pieceIndex][square];
+        endgame -= ENDGAME[pieceIndex][square];
+        phase -= PHASE[pieceIndex];
+    }
+
+    void clear() {
+        midgame = 0;
+        endgame = 0;
+        phase = 0;
+    }
+
+    /**
+     * @return The midgame score in centipawns, positive if it favors white.
+     */
+    public int midgame() {
+        return midgame;
+    }
+
+    /**
+     * @return The endgame score in centipawns, positive if it favors white.
+     */
+    public int endgame() {
+        return endgame;
+    }
+
+    /**
+     * Gets the game phase, from 0 when only kings and pawns remain to 24 with the full
+     * starting material (promotions can push it higher, but it is capped for blending).
+     *
+     * @return The game phase.
+     */
+    public int phase() {
+        return Math.min(phase, MAX_PHASE);
+    }
+
+    /**
+     * Evaluates the position, blending the midgame and endgame scores by the game phase.
+     *
+     * @param team The team to evaluate for.
+     * @return The score in centipawns; positive if the position favors the team.
+     */
+    public int evaluate(TeamColor team) {
+        int phase = phase();
+        int score = (midgame * phase + endgame * (MAX_PHASE - phase)) / MAX_PHASE;
+        return (team == TeamColor.WHITE) ? score : -score;
+    }
+}
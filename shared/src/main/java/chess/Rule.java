@@ -1,11 +1,22 @@
 package chess;
 
 import java.util.Collection;
+import java.util.HashSet;
 
 /**
  * The basic rule interface for a chess piece.
  */
 public interface Rule {
+    /**
+     * Get all possible moves a chess piece can make, appending them to a move list
+     * as encoded moves (see <code>Move</code>) without allocating.
+     * @param board The chessboard.
+     * @param square The square index of the chess piece.
+     * @param teamColor The team color the piece belongs to.
+     * @param moves The list to append the moves to.
+     */
+    void getMoves(ChessBoard board, int square, ChessGame.TeamColor teamColor, MoveList moves);
+
     /**
      * Get all possible moves a chess piece can make.
      * @param board The chessboard.
@@ -13,7 +24,11 @@ public interface Rule {
      * @param teamColor The team color the piece belongs to.
      * @return A Collection of all valid moves.
      */
-    Collection<ChessMove> getMoves(
+    default Collection<ChessMove> getMoves(
             ChessBoard board, ChessPosition pos, ChessGame.TeamColor teamColor
-    );
+    ) {
+        var moves = new MoveList(32);
+        getMoves(board, ChessBoard.squareOf(pos), teamColor, moves);
+        return moves.addTo(new HashSet<>());
+    }
 }
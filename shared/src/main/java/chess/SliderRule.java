@@ -0,0 +1,73 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.util.Objects;
+
+/**
+ * The move rule for sliding pieces (queens, rooks and bishops), which move any number of
+ * squares along their rays until blocked. The reachable squares come from the magic bitboard
+ * tables in Attacks, so finding them costs a table lookup per ray set instead of a walk
+ * along each ray.
+ */
+public class SliderRule implements Rule {
+    private final PieceType type;
+
+    /**
+     * @param type QUEEN, ROOK or BISHOP.
+     */
+    public SliderRule(PieceType type) {
+        if (type != PieceType.QUEEN && type != PieceType.ROOK && type != PieceType.BISHOP) {
+            throw new IllegalArgumentException(type + " is not a sliding piece");
+        }
+        this.type = type;
+    }
+
+    /**
+     * Get all possible moves a sliding piece can make: every square along its rays up to and
+     * including the first piece in the way, unless that piece is on its own team.
+     *
+     * @param board     The chessboard.
+     * @param square    The square index of the chess piece.
+     * @param teamColor The team color the piece belongs to.
+     * @param moves     The list to append the moves to.
+     */
+    @Override
+    public void getMoves(ChessBoard board, int square, TeamColor teamColor, MoveList moves) {
+        long occupancy = board.occupancy();
+        long attacks = switch (type) {
+            case QUEEN -> Attacks.queen(square, occupancy);
+            case ROOK -> Attacks.rook(square, occupancy);
+            default -> Attacks.bishop(square, occupancy);
+        };
+
+        long enemies = board.occupancy(ChessGame.opponentOf(teamColor));
+        for (long targets = attacks & ~board.occupancy(teamColor); targets != 0; targets &= targets - 1) {
+            int target = Long.numberOfTrailingZeros(targets);
+            boolean capture = (enemies & (1L << target)) != 0;
+            moves.add(Move.encode(square, target, ChessBoard.NO_PIECE, capture ? Move.CAPTURE : 0));
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        SliderRule rule = (SliderRule) o;
+        return type == rule.type;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(type);
+    }
+
+    @Override
+    public String toString() {
+        return "SliderRule{" +
+                "type=" + type +
+                '}';
+    }
+}
@@ -0,0 +1,41 @@
+package chess;
+
+/**
+ * Packs everything needed to take back a move into a single <code>int</code>, so that
+ * the board's undo stack is a flat <code>int[]</code> rather than a list of objects.
+ * <p>
+ * Layout (low bits first): start square (6 bits), end square (6 bits),
+ * moved piece index (4 bits), captured piece index (4 bits, 15 for none). Restoring the
+ * moved piece also takes back a promotion.
+ */
+final class UndoRecord {
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int PIECE_MASK = 0xF;
+
+    private UndoRecord() {
+    }
+
+    static int pack(int startSquare, int endSquare, int movedPiece, int capturedPiece) {
+        return startSquare |
+                (endSquare << 6) |
+                (movedPiece << 12) |
+                ((capturedPiece & PIECE_MASK) << 16);
+    }
+
+    static int startSquare(int record) {
+        return record & SQUARE_MASK;
+    }
+
+    static int endSquare(int record) {
+        return (record >>> 6) & SQUARE_MASK;
+    }
+
+    static int movedPiece(int record) {
+        return (record >>> 12) & PIECE_MASK;
+    }
+
+    static int capturedPiece(int record) {
+        int capturedPiece = (record >>> 16) & PIECE_MASK;
+        return (capturedPiece == PIECE_MASK) ? ChessBoard.NO_PIECE : capturedPiece;
+    }
+}
@@ -0,0 +1,34 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the key for every
+ * (piece, square) pair on the board, plus the side-to-move key when Black is to move, so
+ * it can be updated incrementally as pieces are added and removed.
+ * <p>
+ * The keys come from a fixed seed, so position keys are stable between runs and machines
+ * and can be stored.
+ */
+final class Zobrist {
+    private static final long SEED = 0x43484553534B4559L;
+    private static final long[][] PIECE_SQUARE = new long[2 * ChessBoard.NUM_PIECE_TYPES][ChessBoard.NUM_SQUARES];
+    static final long BLACK_TO_MOVE;
+
+    static {
+        var random = new SplittableRandom(SEED);
+        for (long[] squareKeys : PIECE_SQUARE) {
+            for (int square = 0; square < squareKeys.length; square++) {
+                squareKeys[square] = random.nextLong();
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    static long pieceSquare(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+}
@@ -0,0 +1,238 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessPiece.PieceType;
+import chess.Move;
+import chess.MoveList;
+import chess.PositionEvaluator;
+
+/**
+ * Hands out a node's moves one at a time in stages, most promising first:
+ * <ol>
+ *     <li>The hash move (or principal variation move), before anything else is scored.</li>
+ *     <li>Captures and queen promotions that do not lose material by static exchange
+ *     evaluation, most valuable victim first.</li>
+ *     <li>The two killer moves for the ply: quiet moves that caused a cutoff in a sibling node.</li>
+ *     <li>The remaining quiet moves, by their history score.</li>
+ *     <li>Losing captures and underpromotions.</li>
+ * </ol>
+ * Each stage is only scored once the earlier ones are used up, so a cutoff on an early move
+ * saves the work of scoring the rest. The search keeps one picker per ply, and its move list
+ * and scoring buffer are reused from node to node.
+ */
+final class MovePicker {
+    private static final int STAGE_HASH = 0;
+    private static final int STAGE_SCORE_TACTICAL = 1;
+    private static final int STAGE_GOOD_TACTICAL = 2;
+    private static final int STAGE_KILLER_1 = 3;
+    private static final int STAGE_KILLER_2 = 4;
+    private static final int STAGE_SCORE_QUIETS = 5;
+    private static final int STAGE_QUIETS = 6;
+    private static final int STAGE_BAD_TACTICAL = 7;
+    private static final int STAGE_DONE = 8;
+
+    private static final int QUEEN = PieceType.QUEEN.ordinal();
+    // Piece values by PieceType ordinal, for ordering captures
+    private static final int[] VALUES = new int[ChessBoard.NUM_PIECE_TYPES];
+
+    static {
+        for (PieceType type : PieceType.values()) {
+            VALUES[type.ordinal()] = PositionEvaluator.pieceValue(type);
+        }
+    }
+
+    private final ChessBoard board;
+    private final StaticExchange staticExchange;
+    private final MoveList moves = new MoveList();
+    private int[] scores = new int[256];
+
+    private int stage;
+    // The index of the next move to hand out
+    private int next;
+    // Tactical moves are sorted into [tacticalStart, quietStart), with the good ones in
+    // [tacticalStart, goodTacticalEnd), and quiet moves into [quietStart, size)
+    private int tacticalStart;
+    private int goodTacticalEnd;
+    private int quietStart;
+
+    private int firstMove;
+    private int killer1;
+    private int killer2;
+    private int[] history;
+    private boolean skipBadTactical;
+
+    MovePicker(ChessBoard board, StaticExchange staticExchange) {
+        this.board = board;
+        this.staticExchange = staticExchange;
+    }
+
+    /**
+     * @return The list to generate the node's moves into before calling <code>reset()</code>.
+     */
+    MoveList moves() {
+        return moves;
+    }
+
+    /**
+     * Prepares to hand out the moves in <code>moves()</code>.
+     *
+     * @param firstMove       A move to try before all others, or Move.NONE.
+     * @param killer1         The ply's first killer move, or Move.NONE.
+     * @param killer2         The ply's second killer move, or Move.NONE.
+     * @param history         The side to move's history scores, indexed by
+     *                        <code>start * 64 + end</code>.
+     * @param skipBadTactical Whether to leave out losing captures and underpromotions, as a
+     *                        quiescence search does.
+     */
+    void reset(int firstMove, int killer1, int killer2, int[] history, boolean skipBadTactical) {
+        this.firstMove = firstMove;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+        this.history = history;
+        this.skipBadTactical = skipBadTactical;
+        if (scores.length < moves.size()) {
+            scores = new int[moves.size()];
+        }
+        stage = STAGE_HASH;
+    }
+
+    /**
+     * @return The next move to search, or Move.NONE when every move has been handed out.
+     */
+    int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_HASH -> {
+                    stage = STAGE_SCORE_TACTICAL;
+                    tacticalStart = 0;
+                    if (firstMove != Move.NONE && moveTo(firstMove, 0, 0)) {
+                        tacticalStart = 1;
+                        return moves.get(0);
+                    }
+                }
+                case STAGE_SCORE_TACTICAL -> {
+                    scoreTactical();
+                    next = tacticalStart;
+                    stage = STAGE_GOOD_TACTICAL;
+                }
+                case STAGE_GOOD_TACTICAL -> {
+                    if (next < goodTacticalEnd) {
+                        return pickBest(next++, goodTacticalEnd);
+                    }
+                    next = quietStart;
+                    stage = STAGE_KILLER_1;
+                }
+                case STAGE_KILLER_1 -> {
+                    stage = STAGE_KILLER_2;
+                    if (killer1 != Move.NONE && moveTo(killer1, next, next)) {
+                        return moves.get(next++);
+                    }
+                }
+                case STAGE_KILLER_2 -> {
+                    stage = STAGE_SCORE_QUIETS;
+                    if (killer2 != Move.NONE && moveTo(killer2, next, next)) {
+                        return moves.get(next++);
+                    }
+                }
+                case STAGE_SCORE_QUIETS -> {
+                    for (int i = next; i < moves.size(); i++) {
+                        int move = moves.get(i);
+                        scores[i] = history[Move.startSquare(move) * ChessBoard.NUM_SQUARES + Move.endSquare(move)];
+                    }
+                    stage = STAGE_QUIETS;
+                }
+                case STAGE_QUIETS -> {
+                    if (next < moves.size()) {
+                        return pickBest(next++, moves.size());
+                    }
+                    next = goodTacticalEnd;
+                    stage = skipBadTactical ? STAGE_DONE : STAGE_BAD_TACTICAL;
+                }
+                case STAGE_BAD_TACTICAL -> {
+                    if (next < quietStart) {
+                        return pickBest(next++, quietStart);
+                    }
+                    stage = STAGE_DONE;
+                }
+                default -> {
+                    return Move.NONE;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts the moves not yet handed out into good tactical moves, losing tactical moves and
+     * quiet moves, and scores the tactical ones.
+     */
+    private void scoreTactical() {
+        quietStart = tacticalStart;
+        for (int i = tacticalStart; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.isCapture(move) || Move.promotionType(move) != ChessBoard.NO_PIECE) {
+                swap(i, quietStart++);
+            }
+        }
+
+        goodTacticalEnd = tacticalStart;
+        for (int i = tacticalStart; i < quietStart; i++) {
+            int move = moves.get(i);
+            int victim = board.pieceAt(Move.endSquare(move));
+            int attacker = board.pieceAt(Move.startSquare(move)) % ChessBoard.NUM_PIECE_TYPES;
+            int promotion = Move.promotionType(move);
+
+            // Most valuable victim first, then least valuable attacker
+            int score = -VALUES[attacker] / 16;
+            if (victim != ChessBoard.NO_PIECE) {
+                score += 16 * VALUES[victim % ChessBoard.NUM_PIECE_TYPES];
+            }
+            if (promotion != ChessBoard.NO_PIECE) {
+                score += VALUES[promotion];
+            }
+            scores[i] = score;
+
+            boolean underpromotion = promotion != ChessBoard.NO_PIECE && promotion != QUEEN;
+            if (!underpromotion && staticExchange.evaluate(board, move) >= 0) {
+                swap(i, goodTacticalEnd++);
+            }
+        }
+    }
+
+    /**
+     * Looks for a move among the moves from an index on, and swaps it to a target index.
+     *
+     * @return true if the move was found.
+     */
+    private boolean moveTo(int move, int from, int target) {
+        for (int i = from; i < moves.size(); i++) {
+            if (Move.sameMove(moves.get(i), move)) {
+                swap(i, target);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int pickBest(int index, int end) {
+        int best = index;
+        for (int i = index + 1; i < end; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        swap(best, index);
+        return moves.get(index);
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        int move = moves.get(a);
+        moves.set(a, moves.get(b));
+        moves.set(b, move);
+        int score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,213 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.Move;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A read-only opening book: the moves played from known positions, with how often each was
+ * played. The book file is memory-mapped rather than read, so opening even a book of
+ * millions of entries is instant, and a lookup is a binary search over the mapped file that
+ * touches a few pages and allocates nothing.
+ * <p>
+ * The file is a 16-byte header (<code>MAGIC</code>, <code>VERSION</code> and the entry
+ * count) followed by fixed-width 16-byte entries, all little-endian. Each entry is a
+ * position key (<code>ChessGame.positionKey()</code>), an encoded move and its weight.
+ * Entries are sorted by key as an unsigned number, and by descending weight within a key.
+ * Use OpeningBookBuilder to write one.
+ * <p>
+ * Lookups only read the mapping, so a book can be shared between threads.
+ */
+public final class OpeningBook implements AutoCloseable {
+    static final int MAGIC = 0x4B4F4F42; // "BOOK"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int ENTRY_BYTES = 16;
+
+    // Byte offsets within an entry
+    private static final int KEY_OFFSET = 0;
+    private static final int MOVE_OFFSET = 8;
+    private static final int WEIGHT_OFFSET = 12;
+
+    /**
+     * A move from a book position.
+     *
+     * @param move   The encoded move.
+     * @param weight How often the move was played; higher is more popular.
+     */
+    public record Entry(int move, int weight) {
+        /**
+         * @return The move as a ChessMove.
+         */
+        public ChessMove chessMove() {
+            return Move.toChessMove(move);
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int size;
+
+    private OpeningBook(FileChannel channel, MappedByteBuffer buffer, int size) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Opens a book file by mapping it into memory.
+     *
+     * @param path The book file.
+     * @return The open book.
+     * @throws IOException if the file cannot be read or is not a book.
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IOException(path + " is not an opening book (size " + fileSize + ")");
+            }
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(0) != MAGIC) {
+                throw new IOException(path + " is not an opening book");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException(path + " is book version " + buffer.getInt(4) + ", expected " + VERSION);
+            }
+            long size = buffer.getLong(8);
+            if (size < 0 || HEADER_BYTES + size * ENTRY_BYTES != fileSize) {
+                throw new IOException(path + " is truncated: its header lists " + size + " entries");
+            }
+            return new OpeningBook(channel, buffer, (int) size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The number of entries in the book.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the most played move from a position.
+     *
+     * @param positionKey The position's key, from <code>ChessGame.positionKey()</code>.
+     * @return The encoded move, or Move.NONE if the position is not in the book.
+     */
+    public int bestMove(long positionKey) {
+        int index = firstIndexOf(positionKey);
+        return (index >= 0) ? move(index) : Move.NONE;
+    }
+
+    /**
+     * Picks a move from a position at random, with each move's chance proportional to its
+     * weight, so that bots vary their openings.
+     *
+     * @param positionKey The position's key, from <code>ChessGame.positionKey()</code>.
+     * @param random      A random number, such as from <code>RandomGenerator.nextLong()</code>.
+     * @return The encoded move, or Move.NONE if the position is not in the book.
+     */
+    public int pickMove(long positionKey, long random) {
+        int first = firstIndexOf(positionKey);
+        if (first < 0) {
+            return Move.NONE;
+        }
+        int end = first;
+        long totalWeight = 0;
+        while (end < size && key(end) == positionKey) {
+            totalWeight += weight(end++);
+        }
+
+        long target = Long.remainderUnsigned(random, totalWeight);
+        for (int i = first; i < end; i++) {
+            target -= weight(i);
+            if (target < 0) {
+                return move(i);
+            }
+        }
+        return move(first);
+    }
+
+    /**
+     * Gets the most played move from a game's current position.
+     *
+     * @param game The game.
+     * @return The move, or null if the position is not in the book.
+     */
+    public ChessMove bestMove(ChessGame game) {
+        int move = bestMove(game.positionKey());
+        return (move != Move.NONE) ? Move.toChessMove(move) : null;
+    }
+
+    /**
+     * Gets every book move from a position.
+     *
+     * @param positionKey The position's key, from <code>ChessGame.positionKey()</code>.
+     * @return The moves, most played first; empty if the position is not in the book.
+     */
+    public List<Entry> entries(long positionKey) {
+        List<Entry> entries = new ArrayList<>();
+        int first = firstIndexOf(positionKey);
+        if (first >= 0) {
+            for (int i = first; i < size && key(i) == positionKey; i++) {
+                entries.add(new Entry(move(i), weight(i)));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Binary searches for the first entry with a key.
+     *
+     * @return The entry's index, or -1 if no entry has the key.
+     */
+    private int firstIndexOf(long positionKey) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(key(mid), positionKey) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return (low < size && key(low) == positionKey) ? low : -1;
+    }
+
+    private long key(int index) {
+        return buffer.getLong(HEADER_BYTES + index * ENTRY_BYTES + KEY_OFFSET);
+    }
+
+    private int move(int index) {
+        return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + MOVE_OFFSET);
+    }
+
+    private int weight(int index) {
+        return buffer.getInt(HEADER_BYTES + index * ENTRY_BYTES + WEIGHT_OFFSET);
+    }
+
+    /**
+     * Closes the book file. The mapping itself is released once the book is garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
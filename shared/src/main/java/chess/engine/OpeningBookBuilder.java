@@ -0,0 +1,161 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds an OpeningBook file from a set of games. Each game is replayed from the starting
+ * position with <code>ChessGame.makeMove()</code>, so illegal games are rejected, and every
+ * (position, move) pair in its first <code>maxPlies</code> moves adds one to that move's
+ * weight.
+ */
+public class OpeningBookBuilder {
+    /**
+     * The number of plies from each game that go into the book by default.
+     */
+    public static final int DEFAULT_MAX_PLIES = 24;
+
+    private final int maxPlies;
+    // Weights by position key, then by encoded move
+    private final Map<Long, Map<Integer, Integer>> weights = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLIES);
+    }
+
+    /**
+     * @param maxPlies The number of plies from the start of each game to add to the book.
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        if (maxPlies <= 0) {
+            throw new IllegalArgumentException("maxPlies must be positive, got " + maxPlies);
+        }
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Replays a game from the starting position and adds its opening moves to the book.
+     *
+     * @param moves The game's moves, in order.
+     * @throws InvalidMoveException if a move is illegal. Moves before it are still added.
+     */
+    public void addGame(List<ChessMove> moves) throws InvalidMoveException {
+        var game = new ChessGame();
+        for (int ply = 0; ply < Math.min(moves.size(), maxPlies); ply++) {
+            ChessMove move = moves.get(ply);
+            long key = game.positionKey();
+            game.makeMove(move);
+            weights.computeIfAbsent(key, k -> new HashMap<>()).merge(Move.of(move), 1, Integer::sum);
+        }
+        games++;
+    }
+
+    /**
+     * @return The number of games added.
+     */
+    public int games() {
+        return games;
+    }
+
+    /**
+     * @return The number of distinct (position, move) entries the book will have.
+     */
+    public int size() {
+        int size = 0;
+        for (Map<Integer, Integer> moves : weights.values()) {
+            size += moves.size();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the book, replacing any existing file.
+     *
+     * @param path The file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Path path) throws IOException {
+        long[] keys = new long[weights.size()];
+        int i = 0;
+        for (long key : weights.keySet()) {
+            keys[i++] = key;
+        }
+        // Sort as unsigned numbers by flipping the sign bit
+        for (i = 0; i < keys.length; i++) {
+            keys[i] ^= Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+
+        int size = size();
+        var buffer = ByteBuffer.allocate(OpeningBook.HEADER_BYTES + size * OpeningBook.ENTRY_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(OpeningBook.MAGIC).putInt(OpeningBook.VERSION).putLong(size);
+        for (long sortKey : keys) {
+            long key = sortKey ^ Long.MIN_VALUE;
+            weights.get(key).entrySet().stream()
+                    .sorted(Map.Entry.<Integer, Integer>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(entry -> buffer.putLong(key).putInt(entry.getKey()).putInt(entry.getValue()));
+        }
+        buffer.flip();
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Builds a book from the command line.
+     * <pre>
+     * OpeningBookBuilder &lt;games file&gt; &lt;book file&gt; [max plies]
+     * </pre>
+     * The games file has one game per line, as moves in coordinate notation separated by
+     * spaces (such as <code>e2e4 e7e5 g1f3</code>). Illegal games are reported and skipped.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: OpeningBookBuilder <games file> <book file> [max plies]");
+            return;
+        }
+        var builder = new OpeningBookBuilder((args.length > 2) ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLIES);
+
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[0]))) {
+            int lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    builder.addGame(Arrays.stream(line.trim().split("\\s+"))
+                            .map(move -> Move.toChessMove(Move.parse(move)))
+                            .toList());
+                } catch (InvalidMoveException | IllegalArgumentException e) {
+                    System.out.printf("Skipping game on line %d: %s%n", lineNumber, e.getMessage());
+                }
+            }
+        }
+
+        builder.write(Path.of(args[1]));
+        System.out.printf("Wrote %d entries from %d games to %s%n", builder.size(), builder.games(), args[1]);
+    }
+}
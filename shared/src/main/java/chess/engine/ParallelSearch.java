@@ -0,0 +1,172 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.PerftPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A multithreaded search using Lazy SMP: every thread searches the same root position with
+ * its own Search, and the threads cooperate only through a shared lock-free transposition
+ * table. Helper threads search different depths and move orders from the main thread, so
+ * the entries they store let the main thread cut off more of its tree.
+ * <p>
+ * The calling thread runs the main search, which alone applies the node and time limits and
+ * decides the result; helpers are stopped as soon as it finishes.
+ */
+public class ParallelSearch implements AutoCloseable {
+    private static final int DEFAULT_TABLE_MEGABYTES = 64;
+
+    private final Search[] searches;
+    private final ExecutorService helperPool;
+
+    /**
+     * Creates a parallel search with its own transposition table.
+     *
+     * @param threads The number of threads to search with, including the calling thread.
+     */
+    public ParallelSearch(int threads) {
+        this(threads, new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Creates a parallel search whose threads share a given transposition table.
+     *
+     * @param threads The number of threads to search with, including the calling thread.
+     * @param table   The transposition table.
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("A search needs at least one thread");
+        }
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table, i);
+        }
+        helperPool = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            var thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * @return The number of threads this search uses, including the calling thread.
+     */
+    public int threads() {
+        return searches.length;
+    }
+
+    /**
+     * Searches a game's current position on every thread. The game is not modified.
+     *
+     * @param game   The game to search.
+     * @param limits When to stop searching.
+     * @return The main thread's result, with the nodes visited by every thread.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        // Helpers have no node or time limit of their own; they run until the main search stops them
+        var helperLimits = SearchLimits.depth(limits.depth());
+        List<Future<SearchResult>> helpers = new ArrayList<>();
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            helper.resetStop();
+            helpers.add(helperPool.submit(() -> helper.run(game, helperLimits)));
+        }
+
+        SearchResult result = searches[0].search(game, limits);
+
+        long nodes = result.nodes();
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        for (Future<SearchResult> helper : helpers) {
+            try {
+                nodes += helper.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A search helper failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.nanoseconds());
+    }
+
+    /**
+     * Asks a running search to stop on every thread.
+     */
+    public void stop() {
+        for (Search search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Empties the shared transposition table and every thread's move ordering history, so
+     * that the next search starts from nothing, as for a new game.
+     */
+    public void clear() {
+        searches[0].clear();
+        // The table is shared, so the helpers only need their history reset
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].clearHistory();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Measures the Lazy SMP speedup from the command line.
+     * <pre>
+     * ParallelSearch [depth] [max threads]
+     * </pre>
+     * Searches every perft reference position to a fixed depth (default 7) with 1, 2, 4 and
+     * 8 threads (up to the max, default 8), each time with an empty table, and reports the
+     * time to reach the depth and the speedup over one thread. Threads beyond the available
+     * processors only share their time, so the speedup is only meaningful on a machine with
+     * at least as many cores as threads.
+     */
+    public static void main(String[] args) {
+        int depth = (args.length > 0) ? Integer.parseInt(args[0]) : 7;
+        int maxThreads = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+        System.out.printf("Depth %d, %d available processors%n", depth, Runtime.getRuntime().availableProcessors());
+
+        // Warm up the JIT first so that the single-thread baseline is not penalized for it
+        measure(1, depth);
+
+        long singleThreadNanoseconds = 0;
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            SearchResult total = measure(threads, depth);
+            if (threads == 1) {
+                singleThreadNanoseconds = total.nanoseconds();
+            }
+            System.out.printf("%d threads: %d ms, %d nodes (%d nodes/sec), speedup %.2f%n",
+                    threads, total.nanoseconds() / 1_000_000, total.nodes(), total.nodesPerSecond(),
+                    (double) singleThreadNanoseconds / total.nanoseconds());
+        }
+    }
+
+    private static SearchResult measure(int threads, int depth) {
+        long nodes = 0;
+        long nanoseconds = 0;
+        try (var search = new ParallelSearch(threads)) {
+            for (PerftPosition position : PerftPosition.values()) {
+                search.clear();
+                SearchResult result = search.search(position.toGame(), SearchLimits.depth(depth));
+                nodes += result.nodes();
+                nanoseconds += result.nanoseconds();
+            }
+        }
+        return new SearchResult(0, 0, depth, nodes, nanoseconds);
+    }
+}
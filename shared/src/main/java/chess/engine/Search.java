@@ -0,0 +1,462 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+
+import java.util.Arrays;
+
+/**
+ * A negamax alpha-beta search with iterative deepening, aspiration windows, a transposition
+ * table and a quiescence search over captures and promotions.
+ * <p>
+ * Each search works on its own copy of the game's board, making and taking back moves in
+ * place. Move generators, move lists and scoring buffers are kept per ply and reused, so
+ * visiting a node does not allocate. A search object can be reused for many searches, but
+ * runs one search at a time; <code>stop()</code> may be called from another thread.
+ * <p>
+ * The transposition table is kept between searches, so a later search of a related position
+ * starts with what earlier ones learned. Call <code>clear()</code> (or use a new Search) to
+ * get repeatable node counts.
+ */
+public class Search {
+    /**
+     * The deepest ply a search can reach, including quiescence and check extensions.
+     */
+    public static final int MAX_PLY = 128;
+    /**
+     * The score of being checkmated at the root; a mate in n plies scores MATE - n.
+     */
+    public static final int MATE = 31000;
+    static final int INFINITY = 32000;
+
+    private static final int MAX_DEPTH = 64;
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+    private static final int ASPIRATION_WINDOW = 50;
+    // How many nodes to visit between looks at the clock; a power of two
+    private static final int CHECK_INTERVAL = 2048;
+
+    private static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    // History scores are halved whenever one passes this, keeping recent cutoffs the most important
+    private static final int MAX_HISTORY = 1 << 20;
+
+    private final TranspositionTable table;
+    // 0 for a search of its own or the main thread of a parallel search; helpers are numbered from 1
+    private final int helperIndex;
+
+    private final StaticExchange staticExchange = new StaticExchange();
+    // Two quiet moves per ply that recently caused a beta cutoff
+    private final int[][] killers = new int[MAX_PLY][2];
+    // How often each quiet move (by team, start and end square) has caused a cutoff, weighted by depth
+    private final int[][] history = new int[2][ChessBoard.NUM_SQUARES * ChessBoard.NUM_SQUARES];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final int[] previousPv = new int[MAX_PLY];
+    private int previousPvLength;
+    private boolean followPv;
+
+    private ChessBoard board;
+    private MoveGenerator[] generators;
+    private MovePicker[] pickers;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    public Search() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES));
+    }
+
+    /**
+     * Creates a search that uses a given transposition table, such as one sized for the
+     * machine it runs on.
+     *
+     * @param table The transposition table.
+     */
+    public Search(TranspositionTable table) {
+        this(table, 0);
+    }
+
+    /**
+     * Creates a search that reads and writes a given transposition table, which may be
+     * shared with searches running on other threads.
+     *
+     * @param table       The transposition table.
+     * @param helperIndex 0 for a search that reports results, or a positive number for a
+     *                    helper thread, which varies its depths and move order by this number.
+     */
+    Search(TranspositionTable table, int helperIndex) {
+        this.table = table;
+        this.helperIndex = helperIndex;
+        seedHistory();
+    }
+
+    /**
+     * Searches a game's current position for the side to move. The game is not modified.
+     *
+     * @param game   The game to search.
+     * @param limits When to stop searching.
+     * @return The best move of the deepest completed iteration, or of a partial first iteration
+     * if a limit cut even that short.
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        stopRequested = false;
+        return run(game, limits);
+    }
+
+    /**
+     * Runs a search without clearing an earlier <code>stop()</code> request, so that a stop
+     * sent to a helper before it starts is not lost.
+     */
+    SearchResult run(ChessGame game, SearchLimits limits) {
+        long start = System.nanoTime();
+        board = new ChessBoard(game.getBoard());
+        generators = new MoveGenerator[MAX_PLY];
+        pickers = new MovePicker[MAX_PLY];
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            generators[ply] = new MoveGenerator(board);
+            pickers[ply] = new MovePicker(board, staticExchange);
+        }
+        for (int[] plyKillers : killers) {
+            Arrays.fill(plyKillers, Move.NONE);
+        }
+        ageHistory();
+        nodes = 0;
+        nodeLimit = (limits.nodes() > 0) ? limits.nodes() : Long.MAX_VALUE;
+        deadline = (limits.milliseconds() > 0) ? start + limits.milliseconds() * 1_000_000 : Long.MAX_VALUE;
+        aborted = false;
+        previousPvLength = 0;
+        if (helperIndex == 0) {
+            table.newSearch();
+        }
+
+        TeamColor team = game.getTeamTurn();
+        int maxDepth = (limits.depth() > 0) ? Math.min(limits.depth(), MAX_DEPTH) : MAX_DEPTH;
+        int bestMove = Move.NONE;
+        int bestScore = 0;
+        int completedDepth = 0;
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            if (skipsDepth(depth) && depth < maxDepth) {
+                continue;
+            }
+            int score = aspirationSearch(depth, bestScore, team);
+            if (aborted) {
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            previousPvLength = pvLength[0];
+            System.arraycopy(pvTable[0], 0, previousPv, 0, previousPvLength);
+            bestMove = (previousPvLength > 0) ? previousPv[0] : Move.NONE;
+
+            // Stop early if there is nothing to play or a forced mate has been found
+            if (bestMove == Move.NONE || MATE - Math.abs(score) <= depth) {
+                break;
+            }
+        }
+
+        if (completedDepth == 0) {
+            bestMove = firstLegalMove(team);
+        }
+        return new SearchResult(bestMove, bestScore, completedDepth, nodes, System.nanoTime() - start);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible. The search still returns the best
+     * move of its last completed iteration.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    void resetStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Empties the transposition table and move ordering history, forgetting everything
+     * earlier searches learned.
+     */
+    public void clear() {
+        table.clear();
+        seedHistory();
+    }
+
+    /**
+     * Resets the move ordering history but keeps the transposition table, for searches
+     * that share a table someone else clears.
+     */
+    void clearHistory() {
+        seedHistory();
+    }
+
+    /**
+     * Resets the history scores. Helpers start from small scores that differ by helper number,
+     * so that threads explore quiet moves in different orders.
+     */
+    private void seedHistory() {
+        for (int color = 0; color < history.length; color++) {
+            for (int i = 0; i < history[color].length; i++) {
+                history[color][i] = (helperIndex > 0) ? ((i * 0x9E3779B1) ^ (helperIndex * 0x85EBCA6B)) >>> 26 : 0;
+            }
+        }
+    }
+
+    private void ageHistory() {
+        for (int[] colorHistory : history) {
+            for (int i = 0; i < colorHistory.length; i++) {
+                colorHistory[i] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Helpers with odd numbers search only even depths, so that they run ahead of the main
+     * thread and fill the shared table with deeper results than it has reached.
+     */
+    private boolean skipsDepth(int depth) {
+        return helperIndex % 2 == 1 && depth % 2 == 1;
+    }
+
+    /**
+     * Searches a depth with a narrow window around the previous iteration's score, widening
+     * the window and searching again whenever the score falls outside it.
+     */
+    private int aspirationSearch(int depth, int previousScore, TeamColor team) {
+        if (depth < ASPIRATION_MIN_DEPTH) {
+            followPv = true;
+            return negamax(depth, 0, -INFINITY, INFINITY, team);
+        }
+
+        int delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(previousScore - delta, -INFINITY);
+        int beta = Math.min(previousScore + delta, INFINITY);
+        while (true) {
+            followPv = true;
+            int score = negamax(depth, 0, alpha, beta, team);
+            if (aborted) {
+                return score;
+            }
+            if (score <= alpha) {
+                alpha = Math.max(alpha - delta, -INFINITY);
+            } else if (score >= beta) {
+                beta = Math.min(beta + delta, INFINITY);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, TeamColor team) {
+        if (depth <= 0) {
+            return quiescence(ply, alpha, beta, team);
+        }
+        pvLength[ply] = ply;
+        boolean pvNode = followPv && ply < previousPvLength;
+        followPv = false;
+
+        countNode();
+        if (aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return board.evaluator().evaluate(team);
+        }
+
+        long key = board.positionKey(team);
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT ||
+                        (bound == TranspositionTable.BOUND_LOWER && score >= beta) ||
+                        (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return Math.max(alpha, Math.min(beta, score));
+                }
+            }
+        }
+
+        MoveGenerator moveGenerator = generators[ply].reset(team);
+        boolean inCheck = moveGenerator.inCheck();
+        MovePicker picker = pickers[ply];
+        MoveList moves = picker.moves();
+        moves.clear();
+        moveGenerator.generate(moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        if (inCheck) {
+            depth++;
+        }
+
+        int pvMove = pvNode ? previousPv[ply] : Move.NONE;
+        int[] teamHistory = history[team.ordinal()];
+        picker.reset((pvMove != Move.NONE) ? pvMove : hashMove, killers[ply][0], killers[ply][1], teamHistory, false);
+        TeamColor enemy = opponentOf(team);
+        int bestMove = Move.NONE;
+        int bound = TranspositionTable.BOUND_UPPER;
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            followPv = pvNode && Move.sameMove(move, pvMove);
+
+            board.doMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha, enemy);
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                bestMove = move;
+                bound = TranspositionTable.BOUND_EXACT;
+                updatePv(ply, move);
+                if (alpha >= beta) {
+                    if (!Move.isCapture(move) && Move.promotionType(move) == ChessBoard.NO_PIECE) {
+                        recordQuietCutoff(ply, move, depth, teamHistory);
+                    }
+                    table.store(key, move, scoreToTable(beta, ply), depth, TranspositionTable.BOUND_LOWER);
+                    return beta;
+                }
+            }
+        }
+        table.store(key, bestMove, scoreToTable(alpha, ply), depth, bound);
+        return alpha;
+    }
+
+    /**
+     * Searches only captures and promotions (or every evasion when in check) until the
+     * position is quiet, so the static evaluation is never taken in the middle of an exchange.
+     */
+    private int quiescence(int ply, int alpha, int beta, TeamColor team) {
+        pvLength[ply] = ply;
+        followPv = false;
+
+        countNode();
+        if (aborted) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return board.evaluator().evaluate(team);
+        }
+
+        MoveGenerator moveGenerator = generators[ply].reset(team);
+        MovePicker picker = pickers[ply];
+        MoveList moves = picker.moves();
+        moves.clear();
+        boolean inCheck = moveGenerator.inCheck();
+        if (inCheck) {
+            moveGenerator.generate(moves);
+            if (moves.isEmpty()) {
+                return -MATE + ply;
+            }
+        } else {
+            // The side to move can usually do at least as well as the static evaluation
+            int standPat = board.evaluator().evaluate(team);
+            if (standPat >= beta) {
+                return beta;
+            }
+            alpha = Math.max(alpha, standPat);
+            moveGenerator.generateCaptures(moves);
+        }
+
+        // Out of check, captures that lose material are not worth searching
+        picker.reset(Move.NONE, Move.NONE, Move.NONE, history[team.ordinal()], !inCheck);
+        TeamColor enemy = opponentOf(team);
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+
+            board.doMove(move);
+            int score = -quiescence(ply + 1, -beta, -alpha, enemy);
+            board.undoMove();
+            if (aborted) {
+                return 0;
+            }
+
+            if (score > alpha) {
+                alpha = score;
+                if (alpha >= beta) {
+                    return beta;
+                }
+            }
+        }
+        return alpha;
+    }
+
+    private void countNode() {
+        nodes++;
+        if (nodes >= nodeLimit ||
+                ((nodes & (CHECK_INTERVAL - 1)) == 0 && (stopRequested || System.nanoTime() >= deadline))) {
+            aborted = true;
+        }
+    }
+
+    /**
+     * Remembers a quiet move that caused a cutoff, as a killer for its ply and in the history
+     * table, so that it is tried early in similar positions.
+     */
+    private void recordQuietCutoff(int ply, int move, int depth, int[] teamHistory) {
+        int[] plyKillers = killers[ply];
+        if (!Move.sameMove(plyKillers[0], move)) {
+            plyKillers[1] = plyKillers[0];
+            plyKillers[0] = move;
+        }
+
+        int index = Move.startSquare(move) * ChessBoard.NUM_SQUARES + Move.endSquare(move);
+        teamHistory[index] += depth * depth;
+        if (teamHistory[index] > MAX_HISTORY) {
+            for (int i = 0; i < teamHistory.length; i++) {
+                teamHistory[i] /= 2;
+            }
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        int[] pv = pvTable[ply];
+        pv[ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pvTable[ply + 1], ply + 1, pv, ply + 1, childLength - (ply + 1));
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    /**
+     * Mate scores count plies from the root, but the table is shared by every path to a
+     * position, so they are stored counting plies from the position itself instead.
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score + ply;
+        } else if (score <= -MATE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) {
+            return score - ply;
+        } else if (score <= -MATE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    private int firstLegalMove(TeamColor team) {
+        MoveList moves = pickers[0].moves();
+        moves.clear();
+        generators[0].reset(team).generate(moves);
+        return moves.isEmpty() ? Move.NONE : moves.get(0);
+    }
+
+    private static TeamColor opponentOf(TeamColor team) {
+        return (team == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,50 @@
+package chess.engine;
+
+/**
+ * Bounds on how long a search may run. A search stops at whichever limit it reaches first,
+ * and a limit of 0 means that limit is not applied.
+ * <p>
+ * A search limited only by depth does not look at the clock, so it visits exactly the same
+ * nodes on every run; benchmarks should use <code>SearchLimits.depth()</code>.
+ *
+ * @param depth        The deepest iteration to search, in plies.
+ * @param nodes        The most nodes to visit.
+ * @param milliseconds The most time to spend, in milliseconds.
+ */
+public record SearchLimits(int depth, long nodes, long milliseconds) {
+    public SearchLimits {
+        if (depth < 0 || nodes < 0 || milliseconds < 0) {
+            throw new IllegalArgumentException("Search limits must not be negative");
+        }
+    }
+
+    /**
+     * Limits a search to a fixed depth, with no node or time limit.
+     *
+     * @param depth The depth to search, in plies.
+     * @return The limits.
+     */
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    /**
+     * Limits a search to a fixed amount of time.
+     *
+     * @param milliseconds The time to spend, in milliseconds.
+     * @return The limits.
+     */
+    public static SearchLimits time(long milliseconds) {
+        return new SearchLimits(0, 0, milliseconds);
+    }
+
+    /**
+     * Limits a search to a fixed number of nodes.
+     *
+     * @param nodes The most nodes to visit.
+     * @return The limits.
+     */
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+}
@@ -0,0 +1,40 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.Move;
+
+/**
+ * The outcome of a search: the best move found at the deepest completed iteration, with
+ * its score and the work it took.
+ *
+ * @param bestMove    The best move, encoded with <code>Move</code>, or <code>Move.NONE</code>
+ *                    if the side to move has no legal moves.
+ * @param score       The score of the best move in centipawns, from the side to move's point
+ *                    of view. Mate scores are within <code>MAX_PLY</code> of
+ *                    <code>Search.MATE</code>.
+ * @param depth       The depth of the deepest completed iteration.
+ * @param nodes       The number of nodes visited, including quiescence nodes.
+ * @param nanoseconds How long the search took.
+ */
+public record SearchResult(int bestMove, int score, int depth, long nodes, long nanoseconds) {
+    /**
+     * @return The best move as a ChessMove, or null if there is none.
+     */
+    public ChessMove bestChessMove() {
+        return (bestMove != Move.NONE) ? Move.toChessMove(bestMove) : null;
+    }
+
+    /**
+     * @return The number of nodes visited per second.
+     */
+    public long nodesPerSecond() {
+        return (nanoseconds > 0) ? (long) (nodes * 1e9 / nanoseconds) : 0;
+    }
+
+    /**
+     * @return true if the score is a forced mate for either side.
+     */
+    public boolean isMate() {
+        return Math.abs(score) >= Search.MATE - Search.MAX_PLY;
+    }
+}
@@ -0,0 +1,102 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import chess.Move;
+import chess.PositionEvaluator;
+
+/**
+ * Static exchange evaluation (SEE): the material a move wins or loses once both sides have
+ * made every capture on its destination square that pays off for them, each side always
+ * recapturing with its least valuable attacker. Sliders hidden behind an attacker join in
+ * once it has captured. Pins and checks are not considered.
+ * <p>
+ * An instance keeps its own scratch buffer, so evaluating exchanges does not allocate; use
+ * one instance per thread.
+ */
+final class StaticExchange {
+    // Attackers are tried from least to most valuable
+    private static final PieceType[] ATTACKER_ORDER = {
+            PieceType.PAWN, PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN, PieceType.KING
+    };
+    private static final int[] VALUES = new int[ChessBoard.NUM_PIECE_TYPES];
+
+    static {
+        for (PieceType type : PieceType.values()) {
+            VALUES[type.ordinal()] = PositionEvaluator.pieceValue(type);
+        }
+        // The king can capture, but losing it ends the exchange, so it is worth more than anything
+        VALUES[PieceType.KING.ordinal()] = 20000;
+    }
+
+    // One entry per capture in the exchange; there can be at most 32 pieces on the board
+    private final int[] gains = new int[33];
+
+    /**
+     * Evaluates the exchange a move starts.
+     *
+     * @param board The board, with the move not yet made.
+     * @param move  The encoded move.
+     * @return The material the moving side expects to gain, in centipawns (negative if it loses
+     * material).
+     */
+    int evaluate(ChessBoard board, int move) {
+        int from = Move.startSquare(move);
+        int to = Move.endSquare(move);
+        int mover = board.pieceAt(from);
+        int captured = board.pieceAt(to);
+        int promotionType = Move.promotionType(move);
+
+        // The piece standing on the square, which the next capture would win
+        int onSquare = (promotionType != ChessBoard.NO_PIECE) ? promotionType : mover % ChessBoard.NUM_PIECE_TYPES;
+        gains[0] = (captured != ChessBoard.NO_PIECE) ? VALUES[captured % ChessBoard.NUM_PIECE_TYPES] : 0;
+        if (promotionType != ChessBoard.NO_PIECE) {
+            gains[0] += VALUES[promotionType] - VALUES[PieceType.PAWN.ordinal()];
+        }
+
+        long occupancy = board.occupancy() & ~(1L << from);
+        TeamColor side = (mover < ChessBoard.NUM_PIECE_TYPES) ? TeamColor.BLACK : TeamColor.WHITE;
+        long attackers = board.attackersTo(to, occupancy) & occupancy;
+        int depth = 0;
+
+        while (true) {
+            long sideAttackers = attackers & board.occupancy(side);
+            if (sideAttackers == 0) {
+                break;
+            }
+            int attackerType = -1;
+            long attacker = 0L;
+            for (PieceType type : ATTACKER_ORDER) {
+                attacker = sideAttackers & board.pieces(side, type);
+                if (attacker != 0) {
+                    attackerType = type.ordinal();
+                    break;
+                }
+            }
+            // The king may only recapture if the other side has nothing left to take it with
+            if (attackerType == PieceType.KING.ordinal() && (attackers & ~sideAttackers) != 0) {
+                break;
+            }
+
+            depth++;
+            gains[depth] = VALUES[onSquare] - gains[depth - 1];
+            // Neither side can do better by continuing, so the result is already decided
+            if (Math.max(-gains[depth - 1], gains[depth]) < 0) {
+                break;
+            }
+
+            occupancy &= ~(attacker & -attacker);
+            attackers = board.attackersTo(to, occupancy) & occupancy;
+            onSquare = attackerType;
+            side = (side == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        }
+
+        // Each side may stop capturing whenever continuing would lose material
+        while (depth > 0) {
+            gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+            depth--;
+        }
+        return gains[0];
+    }
+}
@@ -0,0 +1,271 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Endgame tablebases: the exact result and distance to mate of every position in the endings
+ * of a king and one piece against a lone king. Tables are generated by TablebaseGenerator
+ * and memory-mapped when opened, so probing costs a few array reads and no loading time.
+ * <p>
+ * A table file is a 16-byte header (<code>MAGIC</code>, <code>VERSION</code>, the piece
+ * type ordinal and the bits per entry) followed by the entries, bit-packed into
+ * little-endian longs. There is one entry per position index (see <code>index()</code>),
+ * for positions where the stronger side is white. Each entry is 0 for a draw or an
+ * impossible position, or the distance to mate in plies plus one. Distances are from the
+ * side to move's point of view, so an odd distance is a win and an even one a loss.
+ * Positions where black has the piece are probed with the colors swapped.
+ * <p>
+ * Probing only reads the mappings, so a tablebase can be shared between threads.
+ */
+public final class Tablebase implements AutoCloseable {
+    static final int MAGIC = 0x4C425454; // "TTBL"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    private static final PieceType[] PIECE_TYPES = PieceType.values();
+
+    /**
+     * The number of positions in each table: side to move, white king, black king and the
+     * piece, each indexed independently.
+     */
+    static final int SIZE = 2 * ChessBoard.NUM_SQUARES * ChessBoard.NUM_SQUARES * ChessBoard.NUM_SQUARES;
+
+    /**
+     * The endings with tables, named by their pieces.
+     */
+    public enum Ending {
+        KQK(PieceType.QUEEN),
+        KRK(PieceType.ROOK),
+        KPK(PieceType.PAWN);
+
+        private final PieceType piece;
+
+        Ending(PieceType piece) {
+            this.piece = piece;
+        }
+
+        /**
+         * @return The type of the stronger side's piece.
+         */
+        public PieceType piece() {
+            return piece;
+        }
+
+        /**
+         * @return The name of the ending's table file.
+         */
+        public String fileName() {
+            return name() + ".tb";
+        }
+
+        static Ending of(PieceType piece) {
+            for (Ending ending : values()) {
+                if (ending.piece == piece) {
+                    return ending;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The result of a position with perfect play, for the side to move.
+     */
+    public enum Wdl {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    private record Table(FileChannel channel, MappedByteBuffer entries, int bits) {
+        int value(int index) {
+            long bitIndex = (long) index * bits;
+            int word = (int) (bitIndex >>> 6);
+            int shift = (int) (bitIndex & 63);
+            long value = entries.getLong(HEADER_BYTES + word * Long.BYTES) >>> shift;
+            if (shift + bits > Long.SIZE) {
+                value |= entries.getLong(HEADER_BYTES + (word + 1) * Long.BYTES) << (Long.SIZE - shift);
+            }
+            return (int) (value & ((1L << bits) - 1));
+        }
+    }
+
+    private final Map<Ending, Table> tables;
+
+    private Tablebase(Map<Ending, Table> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Opens the tables in a directory by mapping them into memory. Endings whose file is
+     * missing are left out.
+     *
+     * @param directory The directory TablebaseGenerator wrote the tables to.
+     * @return The open tablebase.
+     * @throws IOException if a table file cannot be read or is not a table.
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Map<Ending, Table> tables = new EnumMap<>(Ending.class);
+        try {
+            for (Ending ending : Ending.values()) {
+                Path path = directory.resolve(ending.fileName());
+                if (Files.exists(path)) {
+                    tables.put(ending, openTable(path, ending));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Table table : tables.values()) {
+                table.channel().close();
+            }
+            throw e;
+        }
+        return new Tablebase(tables);
+    }
+
+    private static Table openTable(Path path, Ending ending) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES) {
+                throw new IOException(path + " is not a tablebase");
+            }
+            MappedByteBuffer entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+            entries.order(ByteOrder.LITTLE_ENDIAN);
+            if (entries.getInt(0) != MAGIC || entries.getInt(8) != ending.piece().ordinal()) {
+                throw new IOException(path + " is not a " + ending + " tablebase");
+            }
+            if (entries.getInt(4) != VERSION) {
+                throw new IOException(path + " is tablebase version " + entries.getInt(4) + ", expected " + VERSION);
+            }
+            int bits = entries.getInt(12);
+            if (bits <= 0 || bits > Byte.SIZE || fileSize != HEADER_BYTES + packedBytes(bits)) {
+                throw new IOException(path + " is truncated or corrupt");
+            }
+            return new Table(channel, entries, bits);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the size of a table's packed entries. One extra long is allowed for, so that
+     * every entry can be read with two whole-long reads.
+     */
+    static long packedBytes(int bits) {
+        return ((long) SIZE * bits / Long.SIZE + 1) * Long.BYTES;
+    }
+
+    /**
+     * Gets a position's index in its ending's table.
+     *
+     * @param whiteToMove Whether white, the side with the piece, is to move.
+     * @param whiteKing   The white king's square.
+     * @param blackKing   The black king's square.
+     * @param piece       The white piece's square.
+     */
+    static int index(boolean whiteToMove, int whiteKing, int blackKing, int piece) {
+        int side = whiteToMove ? 0 : 1;
+        return ((side * ChessBoard.NUM_SQUARES + whiteKing) * ChessBoard.NUM_SQUARES + blackKing)
+                * ChessBoard.NUM_SQUARES + piece;
+    }
+
+    /**
+     * @param ending An ending.
+     * @return true if the ending's table was found when the tablebase was opened.
+     */
+    public boolean has(Ending ending) {
+        return tables.containsKey(ending);
+    }
+
+    /**
+     * Gets the result of a position with perfect play.
+     *
+     * @param board The position.
+     * @param team  The team to move.
+     * @return The result for the team to move, or null if no open table covers the position.
+     */
+    public Wdl probeWdl(ChessBoard board, TeamColor team) {
+        int value = probe(board, team);
+        if (value < 0) {
+            return null;
+        }
+        if (value == 0) {
+            return Wdl.DRAW;
+        }
+        return ((value - 1) % 2 == 1) ? Wdl.WIN : Wdl.LOSS;
+    }
+
+    /**
+     * Gets how many plies it takes to mate with perfect play: the winner mating as quickly
+     * as possible, and the loser delaying it as long as possible.
+     *
+     * @param board The position.
+     * @param team  The team to move.
+     * @return The number of plies until mate (odd if the team to move wins, even if it loses,
+     * and 0 if it is already mated), or -1 if the position is drawn or no open table covers it.
+     */
+    public int probeDistanceToMate(ChessBoard board, TeamColor team) {
+        int value = probe(board, team);
+        return (value > 0) ? value - 1 : -1;
+    }
+
+    /**
+     * Looks up a position's table entry, swapping the colors if black has the piece.
+     *
+     * @return The entry, or -1 if no open table covers the position.
+     */
+    private int probe(ChessBoard board, TeamColor team) {
+        long occupancy = board.occupancy();
+        if (Long.bitCount(occupancy) != 3) {
+            return -1;
+        }
+        long kings = board.pieces(TeamColor.WHITE, PieceType.KING) | board.pieces(TeamColor.BLACK, PieceType.KING);
+        if (Long.bitCount(kings) != 2) {
+            return -1;
+        }
+
+        int pieceSquare = Long.numberOfTrailingZeros(occupancy & ~kings);
+        int piece = board.pieceAt(pieceSquare);
+        Ending ending = Ending.of(PIECE_TYPES[piece % ChessBoard.NUM_PIECE_TYPES]);
+        Table table = (ending != null) ? tables.get(ending) : null;
+        if (table == null) {
+            return -1;
+        }
+
+        int whiteKing = board.kingSquare(TeamColor.WHITE);
+        int blackKing = board.kingSquare(TeamColor.BLACK);
+        boolean whiteToMove = team == TeamColor.WHITE;
+        if (piece >= ChessBoard.NUM_PIECE_TYPES) {
+            // Black has the piece: flip the board vertically and swap the colors
+            int strongKing = blackKing ^ 56;
+            blackKing = whiteKing ^ 56;
+            whiteKing = strongKing;
+            pieceSquare ^= 56;
+            whiteToMove = !whiteToMove;
+        }
+        return table.value(index(whiteToMove, whiteKing, blackKing, pieceSquare));
+    }
+
+    /**
+     * Closes the table files. The mappings themselves are released once the tablebase is
+     * garbage collected.
+     */
+    @Override
+    public void close() throws IOException {
+        for (Table table : tables.values()) {
+            table.channel().close();
+        }
+    }
+}
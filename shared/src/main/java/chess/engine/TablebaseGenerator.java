@@ -0,0 +1,393 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece;
+import chess.ChessPiece.PieceType;
+import chess.ChessPosition;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.MoveList;
+import chess.engine.Tablebase.Ending;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+
+/**
+ * Generates Tablebase tables by retrograde analysis, spreading the work across a
+ * ForkJoinPool.
+ * <p>
+ * Every position in the table is set up on a ChessBoard once, to find whether it is
+ * possible, whether it is checkmate or stalemate, and which positions its legal moves lead
+ * to. Moves that leave the ending (a capture of the piece, or a promotion) lead to a known
+ * result instead. Then the results are worked backwards from the mates one ply at a time:
+ * at ply n, a position wins if a move leads to a position lost in n - 1 plies, and loses if
+ * every move leads to a position won by the opponent, the longest in exactly n - 1 plies.
+ * Positions never resolved are draws. Each ply scans the table in parallel, and positions
+ * resolved during a ply cannot affect other positions in the same ply, so the result does
+ * not depend on the number of threads.
+ */
+public class TablebaseGenerator {
+    // Table entries while generating; resolved entries hold their final value
+    private static final byte UNRESOLVED = -1;
+    private static final byte IMPOSSIBLE = -2;
+    // The number of positions each task works through
+    private static final int CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+    private final Map<Ending, byte[]> tables = new EnumMap<>(Ending.class);
+    private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+    /**
+     * @param pool The pool to generate tables on.
+     */
+    public TablebaseGenerator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Generates an ending's table, first generating any tables it depends on (the endings
+     * a pawn can promote into). Tables are kept, so each is only generated once.
+     *
+     * @param ending The ending.
+     * @return The table's entries, indexed by <code>Tablebase.index()</code>: 0 for a draw or
+     * an impossible position, otherwise the distance to mate in plies plus one.
+     */
+    public byte[] generate(Ending ending) {
+        byte[] table = tables.get(ending);
+        if (table == null) {
+            if (ending.piece() == PieceType.PAWN) {
+                generate(Ending.KQK);
+                generate(Ending.KRK);
+            }
+            table = new Generation(ending).run();
+            tables.put(ending, table);
+        }
+        return table;
+    }
+
+    /**
+     * Generates an ending's table and writes it to a directory, replacing any existing file.
+     *
+     * @param ending    The ending.
+     * @param directory The directory to write the table file to.
+     * @throws IOException if the file cannot be written.
+     */
+    public void write(Ending ending, Path directory) throws IOException {
+        byte[] table = generate(ending);
+        int maxValue = 0;
+        for (byte value : table) {
+            maxValue = Math.max(maxValue, value);
+        }
+        int bits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(maxValue));
+
+        long[] words = new long[(int) (Tablebase.packedBytes(bits) / Long.BYTES)];
+        for (int index = 0; index < table.length; index++) {
+            long bitIndex = (long) index * bits;
+            int word = (int) (bitIndex >>> 6);
+            int shift = (int) (bitIndex & 63);
+            words[word] |= (long) table[index] << shift;
+            if (shift + bits > Long.SIZE) {
+                words[word + 1] |= (long) table[index] >>> (Long.SIZE - shift);
+            }
+        }
+
+        var buffer = ByteBuffer.allocate(Tablebase.HEADER_BYTES + words.length * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(Tablebase.MAGIC).putInt(Tablebase.VERSION).putInt(ending.piece().ordinal()).putInt(bits);
+        buffer.asLongBuffer().put(words);
+        buffer.rewind();
+
+        try (FileChannel channel = FileChannel.open(directory.resolve(ending.fileName()), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    private void forEachIndex(IntConsumer action) {
+        pool.invoke(new RangeTask(0, Tablebase.SIZE, action));
+    }
+
+    private static class RangeTask extends RecursiveAction {
+        private final int start;
+        private final int end;
+        private final IntConsumer action;
+
+        RangeTask(int start, int end, IntConsumer action) {
+            this.start = start;
+            this.end = end;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= CHUNK_SIZE) {
+                for (int index = start; index < end; index++) {
+                    action.accept(index);
+                }
+            } else {
+                int mid = (start + end) >>> 1;
+                invokeAll(new RangeTask(start, mid, action), new RangeTask(mid, end, action));
+            }
+        }
+    }
+
+    /**
+     * The state of one table's generation. Each position's successors are stored as table
+     * indexes, or, for moves that leave the ending, as <code>-(value + 1)</code> for the
+     * resulting position's final value.
+     */
+    private class Generation {
+        private final Ending ending;
+        private final byte[] values = new byte[Tablebase.SIZE];
+        // Position i's successors are successors[offsets[i]] to successors[offsets[i + 1] - 1]
+        private final int[] offsets = new int[Tablebase.SIZE + 1];
+        private int[] successors;
+
+        Generation(Ending ending) {
+            this.ending = ending;
+        }
+
+        byte[] run() {
+            // Find the impossible, checkmate and stalemate positions, and count the others' moves
+            forEachIndex(index -> {
+                Worker worker = workers.get();
+                values[index] = worker.setUp(ending, index) ? worker.classify(index, offsets) : IMPOSSIBLE;
+                worker.clear();
+            });
+            for (int index = 0; index < Tablebase.SIZE; index++) {
+                offsets[index + 1] += offsets[index];
+            }
+
+            successors = new int[offsets[Tablebase.SIZE]];
+            forEachIndex(index -> {
+                if (values[index] == UNRESOLVED) {
+                    Worker worker = workers.get();
+                    worker.setUp(ending, index);
+                    worker.addSuccessors(ending, index, successors, offsets[index], tables);
+                    worker.clear();
+                }
+            });
+
+            // Work backwards from the mates, one ply at a time, as long as there are
+            // positions one ply shorter to build on
+            int maxValue = 1;
+            for (int successor : successors) {
+                maxValue = Math.max(maxValue, -(successor + 1));
+            }
+            for (int ply = 1; ply <= maxValue; ply++) {
+                int value = ply + 1;
+                var resolved = new LongAdder();
+                forEachIndex(index -> {
+                    if (values[index] == UNRESOLVED && resolves(index, value)) {
+                        values[index] = (byte) value;
+                        resolved.increment();
+                    }
+                });
+                if (resolved.sum() > 0) {
+                    maxValue = Math.max(maxValue, value);
+                }
+            }
+
+            for (int index = 0; index < values.length; index++) {
+                values[index] = (byte) Math.max(values[index], 0);
+            }
+            return values;
+        }
+
+        /**
+         * Determines whether a position is won or lost in exactly <code>value - 1</code> plies.
+         * A value is the distance plus one, so an even value (an odd distance) is a win and an
+         * odd value (an even distance) a loss. A win needs one successor the opponent loses
+         * with value <code>value - 1</code>; a loss needs every successor to be won for the
+         * opponent, the longest with value <code>value - 1</code>.
+         */
+        private boolean resolves(int index, int value) {
+            int successorValue = value - 1;
+            if (value % 2 == 0) {
+                // A win: any move to a position the opponent loses in one ply less
+                for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+                    if (valueOf(successors[i]) == successorValue) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+
+            // A loss: every move leads to a position the opponent wins, the longest
+            // taking one ply less
+            int longest = 0;
+            for (int i = offsets[index]; i < offsets[index + 1]; i++) {
+                int v = valueOf(successors[i]);
+                if (v <= 0 || v % 2 != 0) {
+                    return false;
+                }
+                longest = Math.max(longest, v);
+            }
+            return longest == successorValue;
+        }
+
+        private int valueOf(int successor) {
+            return (successor >= 0) ? values[successor] : -(successor + 1);
+        }
+    }
+
+    /**
+     * A thread's board for setting up positions.
+     */
+    private static class Worker {
+        private final ChessBoard board = new ChessBoard();
+        private final MoveGenerator moveGenerator = new MoveGenerator(board);
+        private final MoveList moves = new MoveList();
+        private int whiteKing;
+        private int blackKing;
+        private int piece;
+        private boolean whiteToMove;
+
+        /**
+         * Sets up a position on the board, unless it is impossible: pieces on the same
+         * square, adjacent kings, a pawn on the first or last row, or the side not to move
+         * in check.
+         *
+         * @return true if the position is possible and was set up.
+         */
+        boolean setUp(Ending ending, int index) {
+            piece = index % ChessBoard.NUM_SQUARES;
+            blackKing = (index / ChessBoard.NUM_SQUARES) % ChessBoard.NUM_SQUARES;
+            whiteKing = (index / (ChessBoard.NUM_SQUARES * ChessBoard.NUM_SQUARES)) % ChessBoard.NUM_SQUARES;
+            whiteToMove = index < Tablebase.SIZE / 2;
+
+            if (piece == whiteKing || piece == blackKing || distance(whiteKing, blackKing) <= 1) {
+                return false;
+            }
+            boolean pawn = ending.piece() == PieceType.PAWN;
+            if (pawn && (piece < 8 || piece >= ChessBoard.NUM_SQUARES - 8)) {
+                return false;
+            }
+
+            board.addPiece(positionOf(whiteKing), ChessPiece.of(TeamColor.WHITE, PieceType.KING));
+            board.addPiece(positionOf(blackKing), ChessPiece.of(TeamColor.BLACK, PieceType.KING));
+            board.addPiece(positionOf(piece), ChessPiece.of(TeamColor.WHITE, ending.piece()));
+            return !whiteToMove || !board.isSquareAttacked(blackKing, TeamColor.WHITE, board.occupancy());
+        }
+
+        void clear() {
+            board.removePiece(positionOf(whiteKing));
+            board.removePiece(positionOf(blackKing));
+            board.removePiece(positionOf(piece));
+        }
+
+        /**
+         * Finds whether the position set up is checkmate (value 1) or stalemate (value 0),
+         * and otherwise records its number of moves.
+         */
+        byte classify(int index, int[] offsets) {
+            generateMoves();
+            if (moves.isEmpty()) {
+                return (byte) (moveGenerator.inCheck() ? 1 : 0);
+            }
+            offsets[index + 1] = moves.size();
+            return UNRESOLVED;
+        }
+
+        void addSuccessors(Ending ending, int index, int[] successors, int offset, Map<Ending, byte[]> tables) {
+            generateMoves();
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                int end = Move.endSquare(move);
+                int successor;
+                if (!whiteToMove) {
+                    // The lone king capturing the piece is a draw
+                    successor = (end == piece) ? -1 : Tablebase.index(true, whiteKing, end, piece);
+                } else if (Move.startSquare(move) == whiteKing) {
+                    successor = Tablebase.index(false, end, blackKing, piece);
+                } else if (Move.promotionType(move) == ChessBoard.NO_PIECE) {
+                    successor = Tablebase.index(false, whiteKing, blackKing, end);
+                } else {
+                    // A promotion leaves the ending; a bishop or knight cannot mate
+                    Ending promoted = Ending.of(PieceType.values()[Move.promotionType(move)]);
+                    byte[] table = (promoted != null) ? tables.get(promoted) : null;
+                    int value = (table != null) ? table[Tablebase.index(false, whiteKing, blackKing, end)] : 0;
+                    successor = -(value + 1);
+                }
+                successors[offset + i] = successor;
+            }
+        }
+
+        private void generateMoves() {
+            moves.clear();
+            moveGenerator.reset(whiteToMove ? TeamColor.WHITE : TeamColor.BLACK).generate(moves);
+        }
+
+        private static int distance(int a, int b) {
+            return Math.max(Math.abs(a / 8 - b / 8), Math.abs(a % 8 - b % 8));
+        }
+
+        private static ChessPosition positionOf(int square) {
+            return ChessPosition.of(square / 8 + 1, square % 8 + 1);
+        }
+    }
+
+    /**
+     * Generates tables from the command line.
+     * <pre>
+     * TablebaseGenerator &lt;directory&gt; [threads] [ending...]
+     * </pre>
+     * Generates every ending (or the given ones) into the directory, using all available
+     * processors unless a thread count is given.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: TablebaseGenerator <directory> [threads] [ending...]");
+            return;
+        }
+        Path directory = Path.of(args[0]);
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Ending[] endings = Ending.values();
+        if (args.length > 2) {
+            endings = new Ending[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                endings[i - 2] = Ending.valueOf(args[i].toUpperCase());
+            }
+        }
+
+        Files.createDirectories(directory);
+        var pool = new ForkJoinPool(threads);
+        try {
+            var generator = new TablebaseGenerator(pool);
+            for (Ending ending : endings) {
+                long start = System.nanoTime();
+                generator.write(ending, directory);
+                long milliseconds = (System.nanoTime() - start) / 1_000_000;
+
+                int wins = 0;
+                int losses = 0;
+                int longest = 0;
+                for (byte value : generator.generate(ending)) {
+                    if (value > 0) {
+                        wins += (value % 2 == 0) ? 1 : 0;
+                        losses += (value % 2 == 1) ? 1 : 0;
+                        longest = Math.max(longest, value - 1);
+                    }
+                }
+                System.out.printf("%s: %d wins, %d losses, longest mate %d plies, %d ms on %d threads%n",
+                        ending, wins, losses, longest, milliseconds, threads);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
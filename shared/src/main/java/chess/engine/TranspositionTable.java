@@ -0,0 +1,199 @@
+package chess.engine;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * A fixed-size transposition table that search threads can share without locks.
+ * <p>
+ * The whole table is one flat <code>long[]</code> allocated up front, so storing entries never
+ * allocates and the garbage collector sees a single object however large the table is.
+ * Entries are grouped into buckets of four (64 bytes, one cache line), and a position may
+ * be stored in any entry of the bucket its key selects.
+ * <p>
+ * Each entry is two adjacent <code>long</code>s: the position key XORed with the entry's data,
+ * and the data itself. Threads read and write the two halves separately, so a reader can see
+ * half of one write and half of another; XORing the halves back together only reproduces the
+ * key when both came from the same write, so torn entries simply read as misses.
+ * <p>
+ * The data packs, from the low bits up: the move (16 bits), the score (16 bits, signed),
+ * the depth (8 bits), the bound (2 bits) and the age (6 bits), which is the table's
+ * generation counter when the entry was stored.
+ */
+public class TranspositionTable {
+    static final int BOUND_EXACT = 1;
+    static final int BOUND_LOWER = 2;
+    static final int BOUND_UPPER = 3;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_LONGS = 2 * BUCKET_ENTRIES;
+    private static final int AGE_BITS = 6;
+    private static final int AGE_MASK = (1 << AGE_BITS) - 1;
+    // How much depth an entry is worth per search it has aged, when choosing one to replace
+    private static final int AGE_PENALTY = 4;
+    private static final int MAX_MEGABYTES = (int) ((long) Integer.MAX_VALUE * Long.BYTES / (1 << 20)) - 1;
+
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long[] slots;
+    private final long buckets;
+    private volatile int age;
+
+    /**
+     * Creates an empty table.
+     *
+     * @param megabytes The size of the table, from 1 MB to just under 16 GB.
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes < 1 || megabytes > MAX_MEGABYTES) {
+            throw new IllegalArgumentException(String.format(
+                    "A transposition table must be from 1 to %d MB, not %d MB", MAX_MEGABYTES, megabytes
+            ));
+        }
+        buckets = ((long) megabytes << 20) / (ENTRY_BYTES * BUCKET_ENTRIES);
+        slots = new long[(int) (buckets * BUCKET_LONGS)];
+    }
+
+    /**
+     * @return The number of entries the table holds.
+     */
+    public long capacity() {
+        return buckets * BUCKET_ENTRIES;
+    }
+
+    /**
+     * Starts a new search, so that entries from earlier searches age and become the first
+     * to be replaced. This must be called by only one of the threads sharing the table.
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Estimates how full the table is with entries from the current search, by sampling
+     * its first thousand entries.
+     *
+     * @return The fill rate in permille (0 to 1000).
+     */
+    public int hashfull() {
+        int sampled = (int) Math.min(1000, capacity());
+        int currentAge = age;
+        int used = 0;
+        for (int entry = 0; entry < sampled; entry++) {
+            long data = (long) SLOTS.getOpaque(slots, 2 * entry + 1);
+            if (data != 0 && age(data) == currentAge) {
+                used++;
+            }
+        }
+        return used * 1000 / sampled;
+    }
+
+    /**
+     * Empties the table. This must not run while a search is using it.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        age = 0;
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key The position's Zobrist key.
+     * @return The entry's data, or 0 if the table holds no entry for the position.
+     */
+    long probe(long key) {
+        int bucket = bucketIndex(key);
+        for (int index = bucket; index < bucket + BUCKET_LONGS; index += 2) {
+            long storedKey = (long) SLOTS.getOpaque(slots, index);
+            long data = (long) SLOTS.getOpaque(slots, index + 1);
+            if ((storedKey ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores a search result for a position.
+     * <p>
+     * If the bucket already holds the position, its entry is overwritten unless it came from
+     * this search and is deeper than the new result (an exact result always overwrites).
+     * Otherwise the new result replaces the bucket's least valuable entry: empty entries first,
+     * then the shallowest, counting each search an entry has aged as a loss of depth.
+     */
+    void store(long key, int move, int score, int depth, int bound) {
+        int currentAge = age;
+        int bucket = bucketIndex(key);
+        int replace = bucket;
+        int replaceValue = Integer.MAX_VALUE;
+
+        for (int index = bucket; index < bucket + BUCKET_LONGS; index += 2) {
+            long storedKey = (long) SLOTS.getOpaque(slots, index);
+            long data = (long) SLOTS.getOpaque(slots, index + 1);
+            if (data == 0) {
+                if (replaceValue > Integer.MIN_VALUE) {
+                    replace = index;
+                    replaceValue = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((storedKey ^ data) == key) {
+                if (bound != BOUND_EXACT && age(data) == currentAge && depth(data) > depth) {
+                    return;
+                }
+                if (move == 0) {
+                    // Keep the old best move rather than forgetting it
+                    move = move(data);
+                }
+                replace = index;
+                break;
+            }
+
+            int value = depth(data) - AGE_PENALTY * ((currentAge - age(data)) & AGE_MASK);
+            if (value < replaceValue) {
+                replace = index;
+                replaceValue = value;
+            }
+        }
+
+        long data = pack(move, score, depth, bound, currentAge);
+        SLOTS.setOpaque(slots, replace, key ^ data);
+        SLOTS.setOpaque(slots, replace + 1, data);
+    }
+
+    private int bucketIndex(long key) {
+        // Maps the key onto [0, buckets) without needing a power-of-two bucket count
+        return (int) Math.unsignedMultiplyHigh(key, buckets) * BUCKET_LONGS;
+    }
+
+    static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & 0xFFFFL) |
+                ((score & 0xFFFFL) << 16) |
+                ((long) (depth & 0xFF) << 32) |
+                ((long) bound << 40) |
+                ((long) age << 42);
+    }
+
+    static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    static int depth(long data) {
+        return (int) (data >>> 32) & 0xFF;
+    }
+
+    static int bound(long data) {
+        return (int) (data >>> 40) & 0x3;
+    }
+
+    static int age(long data) {
+        return (int) (data >>> 42) & AGE_MASK;
+    }
+}
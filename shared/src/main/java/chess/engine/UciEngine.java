@@ -0,0 +1,433 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.ChessMove;
+import chess.Move;
+import chess.PerftPosition;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A front-end that speaks the Universal Chess Interface (UCI) over standard input and output,
+ * so that tournament managers and test suites can play against and test the engine.
+ * <p>
+ * It understands <code>uci</code>, <code>isready</code>, <code>setoption</code> (for the
+ * <code>Hash</code>, <code>Threads</code> and <code>BookFile</code> options),
+ * <code>ucinewgame</code>, <code>position</code>, <code>go</code> (with depth, nodes,
+ * movetime, clock or infinite limits), <code>stop</code> and <code>quit</code>. Searches run
+ * on a background thread, so <code>stop</code> is answered while one is running; any other
+ * command that changes the engine's state stops the search first. These games
+ * have no castling or en passant, so those FEN fields are ignored.
+ * <p>
+ * <code>bench [depth]</code> searches every perft reference position to a fixed depth on one
+ * thread, each with an empty table, and prints the total nodes and nodes per second. The
+ * node count only changes when the search does, so it identifies a build's search, while
+ * the speed measures the machine and the build together.
+ */
+public class UciEngine implements AutoCloseable {
+    /**
+     * The depth <code>bench</code> searches to when none is given.
+     */
+    public static final int DEFAULT_BENCH_DEPTH = 7;
+
+    private static final int DEFAULT_HASH_MEGABYTES = 16;
+    private static final int MAX_HASH_MEGABYTES = 4096;
+    private static final int MAX_THREADS = 256;
+    // How many more moves to budget the clock for when the GUI does not say
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    // Time kept back on every move for the GUI and the engine to talk
+    private static final long MOVE_OVERHEAD_MILLISECONDS = 30;
+    private static final long STOP_POLL_MILLISECONDS = 10;
+
+    private final PrintStream out;
+    private int hashMegabytes = DEFAULT_HASH_MEGABYTES;
+    private int threads = 1;
+    private ParallelSearch search;
+    private OpeningBook book;
+    // Replaced, never modified, by each position command, so a running search can keep reading it
+    private ChessGame game = new ChessGame();
+    private Thread searchThread;
+
+    /**
+     * @param out Where to send the engine's replies.
+     */
+    public UciEngine(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Runs one command.
+     *
+     * @param line The command line from the GUI.
+     * @return false if the command was <code>quit</code>; true otherwise.
+     */
+    public boolean handle(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                send("id name chess");
+                send("id author chess");
+                send("option name Hash type spin default " + DEFAULT_HASH_MEGABYTES + " min 1 max " + MAX_HASH_MEGABYTES);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name BookFile type string default <empty>");
+                send("uciok");
+            }
+            case "isready" -> send("readyok");
+            case "setoption" -> setOption(tokens);
+            case "ucinewgame" -> {
+                stopSearch();
+                if (search != null) {
+                    search.clear();
+                }
+                game = new ChessGame();
+            }
+            case "position" -> position(tokens);
+            case "go" -> go(tokens);
+            case "stop" -> stopSearch();
+            case "quit" -> {
+                close();
+                return false;
+            }
+            case "bench" -> bench(tokens);
+            case "" -> {
+            }
+            default -> send("info string Unknown command: " + line.trim());
+        }
+        return true;
+    }
+
+    private void setOption(String[] tokens) {
+        int nameIndex = indexOf(tokens, "name", 1);
+        int valueIndex = indexOf(tokens, "value", 1);
+        if (nameIndex == tokens.length) {
+            send("info string setoption needs a name");
+            return;
+        }
+        String name = String.join(" ", Arrays.copyOfRange(tokens, nameIndex + 1, Math.min(valueIndex, tokens.length)));
+        String value = (valueIndex < tokens.length)
+                ? String.join(" ", Arrays.copyOfRange(tokens, valueIndex + 1, tokens.length))
+                : "";
+
+        stopSearch();
+        try {
+            switch (name.toLowerCase()) {
+                case "hash" -> {
+                    hashMegabytes = clamp(Integer.parseInt(value), 1, MAX_HASH_MEGABYTES);
+                    closeSearch();
+                }
+                case "threads" -> {
+                    threads = clamp(Integer.parseInt(value), 1, MAX_THREADS);
+                    closeSearch();
+                }
+                case "bookfile" -> {
+                    if (book != null) {
+                        book.close();
+                        book = null;
+                    }
+                    if (!value.isEmpty() && !value.equals("<empty>")) {
+                        book = OpeningBook.open(Path.of(value));
+                    }
+                }
+                default -> send("info string Unknown option: " + name);
+            }
+        } catch (NumberFormatException e) {
+            send("info string Not a number for " + name + ": " + value);
+        } catch (IOException e) {
+            send("info string Cannot open book: " + e.getMessage());
+        }
+    }
+
+    private void position(String[] tokens) {
+        int movesIndex = indexOf(tokens, "moves", 1);
+        ChessGame newGame;
+        try {
+            if (tokens.length > 1 && tokens[1].equals("startpos")) {
+                newGame = new ChessGame();
+            } else if (tokens.length > 2 && tokens[1].equals("fen")) {
+                newGame = ChessGame.fromFen(String.join(" ", Arrays.copyOfRange(tokens, 2, movesIndex)));
+            } else {
+                send("info string position needs startpos or fen");
+                return;
+            }
+
+            // doMove rather than makeMove, so that the GUI can carry on past a draw it does not adjudicate
+            for (int i = movesIndex + 1; i < tokens.length; i++) {
+                ChessMove move = Move.toChessMove(Move.parse(tokens[i]));
+                if (!newGame.isLegal(move)) {
+                    send("info string Illegal move " + tokens[i] + ", ignoring the moves from it on");
+                    break;
+                }
+                newGame.doMove(move);
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+
+        stopSearch();
+        game = newGame;
+    }
+
+    private void go(String[] tokens) {
+        if (searchThread != null && searchThread.isAlive()) {
+            send("info string Already searching");
+            return;
+        }
+
+        int depth = 0;
+        long nodes = 0;
+        long moveTime = 0;
+        long whiteTime = 0;
+        long blackTime = 0;
+        long whiteIncrement = 0;
+        long blackIncrement = 0;
+        int movesToGo = 0;
+        boolean infinite = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> depth = Integer.parseInt(tokens[++i]);
+                    case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                    case "movetime" -> moveTime = Long.parseLong(tokens[++i]);
+                    case "wtime" -> whiteTime = Long.parseLong(tokens[++i]);
+                    case "btime" -> blackTime = Long.parseLong(tokens[++i]);
+                    case "winc" -> whiteIncrement = Long.parseLong(tokens[++i]);
+                    case "binc" -> blackIncrement = Long.parseLong(tokens[++i]);
+                    case "movestogo" -> movesToGo = Integer.parseInt(tokens[++i]);
+                    case "infinite" -> infinite = true;
+                    default -> {
+                    }
+                }
+            }
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            send("info string Cannot read go command: " + String.join(" ", tokens));
+            return;
+        }
+        // SearchLimits rejects negative limits, so report them here rather than let it throw
+        if (depth < 0 || nodes < 0 || moveTime < 0) {
+            send("info string Cannot read go command: " + String.join(" ", tokens));
+            return;
+        }
+
+        ChessGame position = game;
+        if (book != null && !infinite) {
+            int bookMove = book.pickMove(position.positionKey(), ThreadLocalRandom.current().nextLong());
+            // Keys can collide, so only play book moves that are legal here
+            if (bookMove != Move.NONE && position.isLegal(Move.toChessMove(bookMove))) {
+                send("info string book move");
+                send("bestmove " + Move.toString(bookMove));
+                return;
+            }
+        }
+
+        boolean white = position.getTeamTurn() == TeamColor.WHITE;
+        long clock = white ? whiteTime : blackTime;
+        long increment = white ? whiteIncrement : blackIncrement;
+        if (moveTime == 0 && clock > 0 && !infinite) {
+            moveTime = allocateTime(clock, increment, (movesToGo > 0) ? movesToGo : DEFAULT_MOVES_TO_GO);
+        }
+        var limits = infinite ? new SearchLimits(0, 0, 0) : new SearchLimits(depth, nodes, moveTime);
+
+        ParallelSearch search = search();
+        searchThread = new Thread(() -> {
+            SearchResult result = search.search(position, limits);
+            send(info(result));
+            send("bestmove " + ((result.bestMove() != Move.NONE) ? Move.toString(result.bestMove()) : "0000"));
+        }, "uci-search");
+        searchThread.setDaemon(true);
+        searchThread.start();
+    }
+
+    /**
+     * Decides how long to spend on a move: an even share of the clock over the moves to go,
+     * plus most of the increment, but never so much that the clock could run out.
+     *
+     * @return The time to spend, in milliseconds.
+     */
+    static long allocateTime(long clock, long increment, int movesToGo) {
+        long budget = clock / movesToGo + increment * 3 / 4;
+        return Math.max(1, Math.min(budget, clock - MOVE_OVERHEAD_MILLISECONDS));
+    }
+
+    private static String info(SearchResult result) {
+        var info = new StringBuilder("info depth ").append(result.depth());
+        if (result.isMate()) {
+            int plies = Search.MATE - Math.abs(result.score());
+            int moves = (plies + 1) / 2;
+            info.append(" score mate ").append((result.score() > 0) ? moves : -moves);
+        } else {
+            info.append(" score cp ").append(result.score());
+        }
+        info.append(" nodes ").append(result.nodes())
+                .append(" nps ").append(result.nodesPerSecond())
+                .append(" time ").append(result.nanoseconds() / 1_000_000);
+        if (result.bestMove() != Move.NONE) {
+            info.append(" pv ").append(Move.toString(result.bestMove()));
+        }
+        return info.toString();
+    }
+
+    private void bench(String[] tokens) {
+        int depth;
+        try {
+            depth = (tokens.length > 1) ? Integer.parseInt(tokens[1]) : DEFAULT_BENCH_DEPTH;
+            checkBenchDepth(depth);
+        } catch (IllegalArgumentException e) {
+            send("info string Not a bench depth: " + tokens[1]);
+            return;
+        }
+        stopSearch();
+        bench(depth);
+    }
+
+    private static void checkBenchDepth(int depth) {
+        // Depth 0 means no depth limit, so the benchmark would never finish
+        if (depth < 1) {
+            throw new IllegalArgumentException("Not a bench depth: " + depth);
+        }
+    }
+
+    /**
+     * Searches every perft reference position to a fixed depth and reports the totals.
+     * Each position is searched on one thread with an empty table, so the node count is the
+     * same on every run of the same build.
+     *
+     * @param depth The depth to search each position to, at least 1.
+     * @return The total nodes and time over all positions.
+     * @throws IllegalArgumentException if the depth is less than 1.
+     */
+    public SearchResult bench(int depth) {
+        checkBenchDepth(depth);
+        long nodes = 0;
+        long nanoseconds = 0;
+        var benchSearch = new Search();
+        for (PerftPosition position : PerftPosition.values()) {
+            benchSearch.clear();
+            SearchResult result = benchSearch.search(position.toGame(), SearchLimits.depth(depth));
+            nodes += result.nodes();
+            nanoseconds += result.nanoseconds();
+            send(String.format("info string %s: %d nodes, best move %s", position, result.nodes(),
+                    Move.toString(result.bestMove())));
+        }
+
+        var total = new SearchResult(Move.NONE, 0, depth, nodes, nanoseconds);
+        send("Nodes searched: " + total.nodes());
+        send("Nodes/second: " + total.nodesPerSecond());
+        send("Time (ms): " + total.nanoseconds() / 1_000_000);
+        return total;
+    }
+
+    private ParallelSearch search() {
+        if (search == null) {
+            search = new ParallelSearch(threads, new TranspositionTable(hashMegabytes));
+        }
+        return search;
+    }
+
+    private void closeSearch() {
+        if (search != null) {
+            search.close();
+            search = null;
+        }
+    }
+
+    /**
+     * Stops a running search and waits for it to send its best move.
+     */
+    private void stopSearch() {
+        // A search clears stop requests when it starts, so keep asking until the thread is done
+        while (searchThread != null && searchThread.isAlive()) {
+            search.stop();
+            try {
+                searchThread.join(STOP_POLL_MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        searchThread = null;
+    }
+
+    /**
+     * Waits for a running search to finish and send its best move.
+     */
+    void awaitSearch() {
+        if (searchThread == null) {
+            return;
+        }
+        try {
+            searchThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    private void send(String message) {
+        synchronized (out) {
+            out.println(message);
+            out.flush();
+        }
+    }
+
+    private static int indexOf(String[] tokens, String token, int from) {
+        for (int i = from; i < tokens.length; i++) {
+            if (tokens[i].equals(token)) {
+                return i;
+            }
+        }
+        return tokens.length;
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(value, max));
+    }
+
+    /**
+     * Stops any search and closes the search threads and the book.
+     */
+    @Override
+    public void close() {
+        stopSearch();
+        closeSearch();
+        if (book != null) {
+            try {
+                book.close();
+            } catch (IOException e) {
+                send("info string Cannot close book: " + e.getMessage());
+            }
+            book = null;
+        }
+    }
+
+    /**
+     * Runs the engine from the command line.
+     * <pre>
+     * UciEngine [bench [depth]]
+     * </pre>
+     * With no arguments, reads UCI commands from standard input until <code>quit</code> or
+     * the end of input. With <code>bench</code>, runs the benchmark (default depth 7) and exits.
+     */
+    public static void main(String[] args) throws IOException {
+        try (var engine = new UciEngine(System.out)) {
+            if (args.length > 0 && args[0].equals("bench")) {
+                engine.bench((args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_BENCH_DEPTH);
+                return;
+            }
+
+            var in = new BufferedReader(new InputStreamReader(System.in));
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                if (!engine.handle(line)) {
+                    break;
+                }
+            }
+        }
+    }
+}
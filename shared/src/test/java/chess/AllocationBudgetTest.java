@@ -0,0 +1,170 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that ChessGame's hot paths stay within a budget of bytes allocated per call, over
+ * the perft positions. Each operation is run enough times first for the JIT to compile it,
+ * then the thread's allocated bytes are averaged over many more runs.
+ * <p>
+ * Making a move, even once a snapshot has been taken, and checking for check should
+ * allocate nothing. validMoves() has to build
+ * the collection it returns, so its budget grows with the number of moves.
+ */
+class AllocationBudgetTest {
+    private static final int ITERATIONS = 20_000;
+    private static final int GSON_ITERATIONS = 2_000;
+
+    // Budgets, in bytes per call
+    private static final long MAKE_MOVE_BUDGET = 0;
+    private static final long MAKE_MOVE_AFTER_SNAPSHOT_BUDGET = 0;
+    private static final long IS_IN_CHECK_BUDGET = 0;
+    private static final double VALID_MOVES_BASE_BUDGET = 160;
+    private static final double VALID_MOVES_PER_MOVE_BUDGET = 160;
+    private static final long GSON_ROUND_TRIP_BUDGET = 12_000;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    @BeforeAll
+    static void enableAllocationCounting() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "this JVM cannot count allocated bytes");
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "this JVM cannot count allocated bytes");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /**
+     * Runs an operation to warm it up, then measures it.
+     *
+     * @return The average number of bytes allocated per run, rounded down. One-off
+     * allocations, such as the JVM's when it recompiles the operation, average out to
+     * less than a byte and so do not count.
+     */
+    private static long bytesPerRun(int iterations, Operation operation) throws Exception {
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / iterations;
+    }
+
+    private static List<ChessPosition> piecesToMove(ChessGame game) {
+        List<ChessPosition> pieces = new ArrayList<>();
+        for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+            ChessPiece piece = game.getBoard().getPiece(ChessBoard.positionOf(square));
+            if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                pieces.add(ChessBoard.positionOf(square));
+            }
+        }
+        return pieces;
+    }
+
+    private static List<ChessMove> legalMoves(ChessGame game) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (ChessPosition position : piecesToMove(game)) {
+            moves.addAll(game.validMoves(position));
+        }
+        return moves;
+    }
+
+    @Test
+    void harnessSeesAllocations() throws Exception {
+        assertTrue(bytesPerRun(ITERATIONS, () -> ChessGame.fromFen(PerftPosition.START.fen())) > 0);
+    }
+
+    @Test
+    void makeMoveAllocatesNothing() throws Exception {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            List<ChessMove> moves = legalMoves(game);
+            int[] next = {0};
+
+            long bytes = bytesPerRun(ITERATIONS, () -> {
+                game.makeMove(moves.get(next[0]++ % moves.size()));
+                game.undoMove();
+            });
+
+            assertTrue(bytes <= MAKE_MOVE_BUDGET, position + ": makeMove allocated " + bytes + " bytes");
+        }
+    }
+
+    @Test
+    void makeMoveAfterSnapshotAllocatesNothing() throws Exception {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            List<ChessMove> moves = legalMoves(game);
+            game.snapshot();
+            int[] next = {0};
+
+            // Snapshots are only built when asked for, so the moves in between stay free
+            long bytes = bytesPerRun(ITERATIONS, () -> {
+                game.makeMove(moves.get(next[0]++ % moves.size()));
+                game.undoMove();
+            });
+
+            assertTrue(bytes <= MAKE_MOVE_AFTER_SNAPSHOT_BUDGET,
+                    position + ": makeMove after a snapshot allocated " + bytes + " bytes");
+        }
+    }
+
+    @Test
+    void isInCheckAllocatesNothing() throws Exception {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+
+            long bytes = bytesPerRun(ITERATIONS, () -> {
+                game.isInCheck(ChessGame.TeamColor.WHITE);
+                game.isInCheck(ChessGame.TeamColor.BLACK);
+            }) / 2;
+
+            assertTrue(bytes <= IS_IN_CHECK_BUDGET, position + ": isInCheck allocated " + bytes + " bytes");
+        }
+    }
+
+    @Test
+    void validMovesStaysWithinBudget() throws Exception {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            List<ChessPosition> pieces = piecesToMove(game);
+            int[] next = {0};
+
+            long bytes = bytesPerRun(ITERATIONS, () -> game.validMoves(pieces.get(next[0]++ % pieces.size())));
+
+            double movesPerCall = (double) legalMoves(game).size() / pieces.size();
+            double budget = VALID_MOVES_BASE_BUDGET + VALID_MOVES_PER_MOVE_BUDGET * movesPerCall;
+            assertTrue(bytes <= budget, String.format("%s: validMoves allocated %d bytes, budget %.0f",
+                    position, bytes, budget));
+        }
+    }
+
+    @Test
+    void gsonRoundTripStaysWithinBudget() throws Exception {
+        var gson = new Gson();
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+
+            long bytes = bytesPerRun(GSON_ITERATIONS, () -> gson.fromJson(gson.toJson(game), ChessGame.class));
+
+            assertTrue(bytes <= GSON_ROUND_TRIP_BUDGET, position + ": Gson round trip allocated " + bytes + " bytes");
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttacksTest {
+    private static final int[] BISHOP_DIRECTIONS = {1, 3, 5, 7};
+    private static final int[] ROOK_DIRECTIONS = {0, 2, 4, 6};
+
+    @Test
+    void magicAttacksMatchRayCasting() {
+        var random = new SplittableRandom(1);
+        for (int i = 0; i < 20000; i++) {
+            // Sparse and dense boards both
+            long occupancy = (i % 2 == 0) ? random.nextLong() & random.nextLong() : random.nextLong();
+            int square = i % ChessBoard.NUM_SQUARES;
+
+            assertEquals(Attacks.slowSliderAttacks(BISHOP_DIRECTIONS, square, occupancy),
+                    Attacks.bishop(square, occupancy));
+            assertEquals(Attacks.slowSliderAttacks(ROOK_DIRECTIONS, square, occupancy),
+                    Attacks.rook(square, occupancy));
+        }
+    }
+
+    @Test
+    void emptyBoardAttacks() {
+        // A rook sees its whole row and column, a bishop from a corner the long diagonal
+        assertEquals(14, Long.bitCount(Attacks.rook(27, 0L)));
+        assertEquals(7, Long.bitCount(Attacks.bishop(0, 0L)));
+        assertEquals(27, Long.bitCount(Attacks.queen(27, 0L)));
+    }
+
+    private static int[] sorted(MoveList moves) {
+        int[] array = new int[moves.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = moves.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+
+    @Test
+    void sliderRuleMatchesStepwiseRule() {
+        ChessBoard board = ChessBoard.fromFen(PerftPosition.KIWIPETE.fen());
+        int[][] queenSteps = {{1, -1}, {1, 0}, {1, 1}, {0, -1}, {0, 1}, {-1, -1}, {-1, 0}, {-1, 1}};
+
+        for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+            for (TeamColor team : TeamColor.values()) {
+                var expected = new MoveList();
+                var actual = new MoveList();
+                new BasicRule(queenSteps).getMoves(board, square, team, expected);
+                new SliderRule(PieceType.QUEEN).getMoves(board, square, team, actual);
+
+                assertArrayEquals(sorted(expected), sorted(actual));
+            }
+        }
+    }
+}
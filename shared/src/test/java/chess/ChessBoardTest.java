@@ -0,0 +1,58 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessBoardTest {
+    @Test
+    void occupiedPositionsAreFixedCopies() {
+        var board = new ChessBoard();
+        board.resetBoard();
+
+        var whitePositions = board.getOccupiedPositions(TeamColor.WHITE);
+        assertEquals(16, whitePositions.size());
+        assertThrows(UnsupportedOperationException.class, () -> whitePositions.add(ChessPosition.of(5, 5)));
+
+        board.removePiece(ChessPosition.of(1, 1));
+        board.addPiece(ChessPosition.of(4, 4), ChessPiece.of(TeamColor.WHITE, PieceType.QUEEN));
+
+        // The earlier result does not change under the caller
+        assertTrue(whitePositions.contains(ChessPosition.of(1, 1)));
+        assertFalse(whitePositions.contains(ChessPosition.of(4, 4)));
+
+        var updated = board.getOccupiedPositions(TeamColor.WHITE);
+        assertEquals(16, updated.size());
+        assertFalse(updated.contains(ChessPosition.of(1, 1)));
+        assertTrue(updated.contains(ChessPosition.of(4, 4)));
+    }
+
+    @Test
+    void occupiedPositionsCanBeReadWhileChangingTheBoard() {
+        var board = new ChessBoard();
+        board.resetBoard();
+
+        for (ChessPosition position : board.getOccupiedPositions(TeamColor.BLACK)) {
+            board.removePiece(position);
+            assertFalse(board.getOccupiedPositions(TeamColor.BLACK).contains(position));
+        }
+        assertTrue(board.getOccupiedPositions(TeamColor.BLACK).isEmpty());
+    }
+
+    @Test
+    void copiedBoardListsItsOwnPieces() {
+        var board = new ChessBoard();
+        board.addPiece(ChessPosition.of(2, 3), ChessPiece.of(TeamColor.BLACK, PieceType.KING));
+
+        var copy = new ChessBoard(board);
+
+        assertEquals(List.of(ChessPosition.of(2, 3)), List.copyOf(copy.getOccupiedPositions(TeamColor.BLACK)));
+        assertTrue(copy.getOccupiedPositions(TeamColor.WHITE).isEmpty());
+        assertEquals(ChessPosition.of(2, 3), copy.findFirstPiece(PieceType.KING, TeamColor.BLACK));
+        assertNull(copy.findFirstPiece(PieceType.KING, TeamColor.WHITE));
+    }
+}
@@ -0,0 +1,110 @@
+package chess;
+
+import chess.ChessGame.WinState;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawRulesTest {
+    private static ChessMove move(String move) {
+        return Move.toChessMove(Move.parse(move));
+    }
+
+    private static void play(ChessGame game, String... moves) throws InvalidMoveException {
+        for (String move : moves) {
+            game.makeMove(move(move));
+        }
+    }
+
+    @Test
+    void threefoldRepetitionIsADraw() throws InvalidMoveException {
+        var game = new ChessGame();
+
+        play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        assertEquals(2, game.repetitionCount());
+        assertEquals(WinState.IN_PROGRESS, game.getWinState());
+
+        play(game, "g1f3", "g8f6", "f3g1", "f6g8");
+        assertEquals(3, game.repetitionCount());
+        assertEquals(WinState.DRAW_BY_REPETITION, game.getWinState());
+        assertThrows(InvalidMoveException.class, () -> game.makeMove(move("e2e4")));
+    }
+
+    @Test
+    void pawnMoveClearsRepetitions() throws InvalidMoveException {
+        var game = new ChessGame();
+
+        play(game, "g1f3", "g8f6", "f3g1", "f6g8", "e2e3");
+        assertEquals(0, game.getHalfmoveClock());
+        play(game, "g8f6", "g1f3", "f6g8", "f3g1", "g8f6", "g1f3", "f6g8");
+
+        assertEquals(2, game.repetitionCount());
+        assertEquals(WinState.IN_PROGRESS, game.getWinState());
+    }
+
+    @Test
+    void fiftyMoveRuleIsADraw() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/R3K3 w - - 98 80");
+
+        play(game, "a1a2");
+        assertEquals(WinState.IN_PROGRESS, game.getWinState());
+        play(game, "e8d8");
+
+        assertEquals(100, game.getHalfmoveClock());
+        assertEquals(WinState.DRAW_BY_FIFTY_MOVE_RULE, game.getWinState());
+    }
+
+    @Test
+    void checkmateTakesPrecedenceOverFiftyMoveRule() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("7k/8/6K1/8/8/8/8/5Q2 w - - 99 80");
+
+        play(game, "f1f8");
+
+        assertEquals(WinState.WHITE_BEAT_BLACK, game.getWinState());
+    }
+
+    @Test
+    void captureResetsHalfmoveClock() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/r7/R3K3 w - - 40 30");
+
+        play(game, "a1a2");
+
+        assertEquals(0, game.getHalfmoveClock());
+    }
+
+    @Test
+    void fenCarriesMoveCounters() throws InvalidMoveException {
+        var game = new ChessGame();
+        play(game, "g1f3", "g8f6", "e2e4");
+
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/5N2/PPPP1PPP/RNBQKB1R b - - 0 2", game.toFen());
+        play(game, "f6g8");
+        assertTrue(game.toFen().endsWith(" w - - 1 3"));
+        assertEquals(game.toFen(), ChessGame.fromFen(game.toFen()).toFen());
+    }
+
+    @Test
+    void undoRestoresCounters() throws InvalidMoveException {
+        var game = new ChessGame();
+        play(game, "e2e4", "g8f6", "g1f3");
+
+        game.undoMove();
+        game.undoMove();
+
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b - - 0 1", game.toFen());
+    }
+
+    @Test
+    void historySurvivesSerialization() throws InvalidMoveException {
+        var gson = new Gson();
+        var game = new ChessGame();
+        play(game, "g1f3", "g8f6", "f3g1", "f6g8", "g1f3", "g8f6", "f3g1");
+
+        ChessGame restored = gson.fromJson(gson.toJson(game), ChessGame.class);
+        play(restored, "f6g8");
+
+        assertEquals(WinState.DRAW_BY_REPETITION, restored.getWinState());
+    }
+}
@@ -0,0 +1,109 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTest {
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    @Test
+    void startPosition() {
+        assertEquals(START_FEN, new ChessGame().toFen());
+        assertEquals(new ChessGame(), ChessGame.fromFen(START_FEN));
+    }
+
+    @Test
+    void roundTripsReferencePositions() {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            assertEquals(position.fen(), game.toFen(), position.name());
+            assertEquals(game, ChessGame.fromFen(game.toFen()), position.name());
+        }
+    }
+
+    @Test
+    void readsTeamToMove() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+
+        assertEquals(TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(ChessPiece.of(TeamColor.BLACK, PieceType.KING), game.getBoard().getPiece(ChessPosition.of(8, 5)));
+        assertEquals(ChessPiece.of(TeamColor.WHITE, PieceType.KING), game.getBoard().getPiece(ChessPosition.of(1, 5)));
+        assertEquals(TeamColor.WHITE, ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3").getTeamTurn());
+    }
+
+    @Test
+    void setsWinStateFromPosition() {
+        ChessGame game = ChessGame.fromFen("7k/6Q1/6K1/8/8/8/8/8 b - - 0 1");
+
+        assertEquals(ChessGame.WinState.WHITE_BEAT_BLACK, game.getWinState());
+    }
+
+    @Test
+    void rejectsMalformedFen() {
+        String[] malformed = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP",
+                "rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                "rnbqkbnr/ppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR/8 w",
+        };
+        for (String fen : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        }
+    }
+
+    @Test
+    void readsMoveCounters() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b KQkq e3 17 42");
+
+        assertEquals(17, game.getHalfmoveClock());
+        assertEquals(42, game.getFullmoveNumber());
+        assertEquals(1, ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 5").getFullmoveNumber());
+    }
+
+    private static void assertInvalidAt(String fen, int index) {
+        var e = assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), fen);
+        assertTrue(e.getMessage().contains("at index " + index + ":"), e.getMessage());
+    }
+
+    @Test
+    void reportsWhereCountersAreMalformed() {
+        String prefix = "4k3/8/8/8/8/8/8/4K3 w - - ";
+        assertInvalidAt(prefix + "-1 -1", prefix.length());
+        assertInvalidAt(prefix + "1 -1", prefix.length() + 2);
+        assertInvalidAt(prefix + "0 0", prefix.length() + 2);
+        assertInvalidAt(prefix + "x 1", prefix.length());
+        assertInvalidAt(prefix + "3 3 1", prefix.length() + 4);
+        assertInvalidAt(prefix + "99999999999 1", prefix.length());
+        // A repeated value must be reported where it fails, not where it last appears
+        assertInvalidAt(prefix + "1x 1 1x", prefix.length());
+        assertInvalidAt(prefix + "0 1 0", prefix.length() + 4);
+    }
+
+    @Test
+    void gsonStoresBoardAsFen() {
+        var gson = new Gson();
+        var board = ChessBoard.fromFen(PerftPosition.KIWIPETE.fen());
+
+        String json = gson.toJson(board);
+
+        assertEquals("{\"fen\":\"" + board.toFen() + "\"}", json);
+        assertEquals(board, gson.fromJson(json, ChessBoard.class));
+    }
+
+    @Test
+    void gsonReadsLegacyBoardArrays() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        String legacyJson = "{\"board\":" + new Gson().toJson(board.toArray()) + "}";
+
+        assertEquals(board, new Gson().fromJson(legacyJson, ChessBoard.class));
+    }
+}
@@ -0,0 +1,162 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessGame.WinState;
+import chess.ChessPiece.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotTest {
+    private static ChessMove move(String move) {
+        return Move.toChessMove(Move.parse(move));
+    }
+
+    @Test
+    void unchangedGameReturnsSameSnapshot() {
+        var game = new ChessGame();
+
+        GameSnapshot snapshot = game.snapshot();
+
+        assertSame(snapshot, game.snapshot());
+        assertEquals(game.toFen(), snapshot.toFen());
+        assertNull(snapshot.previous());
+        assertNull(snapshot.lastMove());
+    }
+
+    @Test
+    void movesExtendTheChain() throws InvalidMoveException {
+        var game = new ChessGame();
+        GameSnapshot start = game.snapshot();
+        String startFen = start.toFen();
+
+        game.makeMove(move("e2e4"));
+        game.makeMove(move("e7e5"));
+        GameSnapshot current = game.snapshot();
+
+        assertSame(start, current.previous().previous());
+        assertEquals(startFen, start.toFen());
+        assertEquals(game.toFen(), current.toFen());
+        assertEquals(game.positionKey(), current.positionKey());
+        assertEquals(TeamColor.WHITE, current.getTeamTurn());
+        assertEquals(2, current.getFullmoveNumber());
+        assertEquals(List.of(move("e2e4"), move("e7e5")), current.moveHistory());
+        assertEquals(new ChessPiece(TeamColor.WHITE, PieceType.PAWN),
+                current.getPiece(new ChessPosition(4, 5)));
+        assertNull(current.getPiece(new ChessPosition(2, 5)));
+    }
+
+    @Test
+    void historyReplaysToTheSamePosition() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.snapshot();
+        for (String move : new String[]{"g1f3", "d7d5", "f3e5", "b8c6", "e5c6", "b7c6"}) {
+            game.makeMove(move(move));
+        }
+        GameSnapshot snapshot = game.snapshot();
+
+        var replay = new ChessGame();
+        for (ChessMove move : snapshot.moveHistory()) {
+            replay.makeMove(move);
+        }
+
+        assertEquals(snapshot, replay.snapshot());
+        assertEquals(game.getBoard(), snapshot.toBoard());
+    }
+
+    @Test
+    void promotionIsApplied() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/P7/8/8/8/8/8/4K3 w - - 0 40");
+        game.snapshot();
+
+        game.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), PieceType.QUEEN));
+
+        assertEquals(game.toFen(), game.snapshot().toFen());
+        assertEquals(new ChessPiece(TeamColor.WHITE, PieceType.QUEEN),
+                game.snapshot().getPiece(new ChessPosition(8, 1)));
+    }
+
+    @Test
+    void undoReturnsPreviousSnapshot() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(move("e2e4"));
+        GameSnapshot before = game.snapshot();
+
+        game.doMove(move("e7e5"));
+        assertSame(before, game.snapshot().previous());
+        game.undoMove();
+
+        assertSame(before, game.snapshot());
+    }
+
+    @Test
+    void changingTheBoardDirectlyStartsANewChain() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(move("e2e4"));
+        game.snapshot();
+
+        game.getBoard().addPiece(new ChessPosition(4, 4), new ChessPiece(TeamColor.BLACK, PieceType.QUEEN));
+        GameSnapshot snapshot = game.snapshot();
+        assertNull(snapshot.previous());
+        assertEquals(game.toFen(), snapshot.toFen());
+
+        game.setBoard(new ChessBoard(game.getBoard()));
+        assertNotSame(snapshot, game.snapshot());
+        assertNull(game.snapshot().previous());
+    }
+
+    @Test
+    void snapshotsBetweenCallsMatchTheGame() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.snapshot();
+        List<String> fens = new ArrayList<>();
+        List<Long> keys = new ArrayList<>();
+        // Includes captures and a pawn move, which reset the halfmove clock
+        for (String move : new String[]{"g1f3", "d7d5", "f3e5", "b8c6", "e5c6", "b7c6", "b1c3"}) {
+            game.makeMove(move(move));
+            fens.add(game.toFen());
+            keys.add(game.positionKey());
+        }
+
+        GameSnapshot snapshot = game.snapshot();
+        for (int i = fens.size() - 1; i >= 0; i--) {
+            assertEquals(fens.get(i), snapshot.toFen());
+            assertEquals(keys.get(i), snapshot.positionKey());
+            snapshot = snapshot.previous();
+        }
+        assertEquals(new ChessGame().toFen(), snapshot.toFen());
+        assertNull(snapshot.previous());
+    }
+
+    @Test
+    void changingTheBoardBetweenMovesStartsANewChain() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.snapshot();
+
+        game.makeMove(move("e2e4"));
+        game.getBoard().removePiece(new ChessPosition(2, 4));
+        game.makeMove(move("e7e5"));
+        GameSnapshot snapshot = game.snapshot();
+
+        assertNull(snapshot.previous());
+        assertEquals(game.toFen(), snapshot.toFen());
+    }
+
+    @Test
+    void winStateChangeKeepsHistory() throws InvalidMoveException {
+        var game = new ChessGame();
+        game.makeMove(move("e2e4"));
+        GameSnapshot before = game.snapshot();
+
+        game.resignTeam(TeamColor.BLACK);
+        GameSnapshot after = game.snapshot();
+
+        assertEquals(WinState.IN_PROGRESS, before.getWinState());
+        assertNotEquals(WinState.IN_PROGRESS, after.getWinState());
+        assertSame(before.previous(), after.previous());
+        assertEquals(before.toFen(), after.toFen());
+    }
+}
@@ -0,0 +1,127 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegalMovesTest {
+    @Test
+    void cacheFollowsMovesMadeThroughGame() throws InvalidMoveException {
+        var game = new ChessGame();
+        var pawn = ChessPosition.of(2, 5);
+        assertEquals(2, game.validMoves(pawn).size());
+
+        game.makeMove(new ChessMove(pawn, ChessPosition.of(4, 5), null));
+
+        assertEquals(1, game.validMoves(ChessPosition.of(4, 5)).size());
+        assertEquals(5, game.validMoves(ChessPosition.of(1, 6)).size());
+    }
+
+    @Test
+    void cacheFollowsDirectBoardChanges() {
+        var game = new ChessGame();
+        var knight = ChessPosition.of(1, 7);
+        assertEquals(2, game.validMoves(knight).size());
+
+        // Blocking one of the knight's targets through the board must not return stale moves
+        game.getBoard().addPiece(ChessPosition.of(3, 6), ChessPiece.of(TeamColor.WHITE, PieceType.PAWN));
+
+        assertEquals(1, game.validMoves(knight).size());
+    }
+
+    @Test
+    void statusQueriesAgreeAfterSetBoard() {
+        var game = new ChessGame();
+        assertFalse(game.isInStalemate(TeamColor.BLACK));
+
+        var board = new ChessBoard();
+        board.addPiece(ChessPosition.of(8, 8), ChessPiece.of(TeamColor.BLACK, PieceType.KING));
+        board.addPiece(ChessPosition.of(6, 7), ChessPiece.of(TeamColor.WHITE, PieceType.QUEEN));
+        board.addPiece(ChessPosition.of(1, 1), ChessPiece.of(TeamColor.WHITE, PieceType.KING));
+        game.setBoard(board);
+        game.setTeamTurn(TeamColor.BLACK);
+
+        assertTrue(game.isInStalemate(TeamColor.BLACK));
+        assertFalse(game.isInCheckmate(TeamColor.BLACK));
+        assertTrue(game.validMoves(ChessPosition.of(8, 8)).isEmpty());
+    }
+
+    @Test
+    void hasAnyLegalMoveFindsPinnedAndBlockingMoves() {
+        // The king is boxed in, so only the pinned rook's moves along the pin remain
+        ChessGame pinned = ChessGame.fromFen("k7/2Q5/8/8/r7/8/8/R6K b - - 0 1");
+        assertTrue(pinned.hasAnyLegalMove(TeamColor.BLACK));
+        assertFalse(pinned.isInStalemate(TeamColor.BLACK));
+
+        // Only a block saves the king from mate
+        ChessGame block = ChessGame.fromFen("6k1/5ppp/8/8/8/8/2b5/4R1K1 b - - 0 1");
+        assertTrue(block.hasAnyLegalMove(TeamColor.BLACK));
+        assertFalse(block.isInCheckmate(TeamColor.BLACK));
+
+        ChessGame mate = ChessGame.fromFen("4R1k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        assertFalse(mate.hasAnyLegalMove(TeamColor.BLACK));
+        assertTrue(mate.isInCheckmate(TeamColor.BLACK));
+        assertTrue(mate.hasAnyLegalMove(TeamColor.WHITE));
+    }
+
+    @Test
+    void hasAnyLegalMoveAgreesWithValidMoves() {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            for (TeamColor team : TeamColor.values()) {
+                boolean anyValid = false;
+                for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+                    ChessPiece piece = game.getBoard().getPiece(ChessBoard.positionOf(square));
+                    if (piece != null && piece.getTeamColor() == team) {
+                        anyValid |= !game.validMoves(ChessBoard.positionOf(square)).isEmpty();
+                    }
+                }
+                assertEquals(anyValid, game.hasAnyLegalMove(team), position + " " + team);
+            }
+        }
+    }
+
+    private static void assertIsLegalMatchesGenerator(ChessGame game) {
+        var legal = new MoveList();
+        new MoveGenerator(game.getBoard(), game.getTeamTurn()).generate(legal);
+
+        for (int start = 0; start < ChessBoard.NUM_SQUARES; start++) {
+            for (int end = 0; end < ChessBoard.NUM_SQUARES; end++) {
+                for (int promotionType = ChessBoard.NO_PIECE; promotionType < ChessBoard.NUM_PIECE_TYPES; promotionType++) {
+                    int move = Move.encode(start, end, promotionType, 0);
+                    assertEquals(legal.contains(move), game.isLegal(Move.toChessMove(move)),
+                            () -> game.toFen() + " " + Move.toString(move));
+                }
+            }
+        }
+    }
+
+    @Test
+    void isLegalAgreesWithGeneratedMoves() {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            assertIsLegalMatchesGenerator(game);
+
+            // One ply deeper reaches positions in check and with pins
+            var rootMoves = new MoveList();
+            new MoveGenerator(game.getBoard(), game.getTeamTurn()).generate(rootMoves);
+            for (int i = 0; i < rootMoves.size(); i++) {
+                game.doMove(Move.toChessMove(rootMoves.get(i)));
+                assertIsLegalMatchesGenerator(game);
+                game.undoMove();
+            }
+        }
+    }
+
+    @Test
+    void makeMoveStillExplainsIllegalMoves() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/4r3/4K3 w - - 0 1");
+
+        var e = assertThrows(InvalidMoveException.class,
+                () -> game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 4), null)));
+        assertTrue(e.getMessage().contains("check"), e.getMessage());
+        assertFalse(game.isLegal(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(0, 4), null)));
+    }
+}
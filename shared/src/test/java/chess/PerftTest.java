@@ -0,0 +1,60 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+    // Keep each count small enough that the whole suite runs in a few seconds
+    private static final long MAX_TESTED_NODES = 200_000;
+
+    @Test
+    void referencePositions() {
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            for (int depth = 1; depth <= position.maxDepth(); depth++) {
+                long expected = position.expectedNodes(depth);
+                if (expected > MAX_TESTED_NODES) {
+                    break;
+                }
+                assertEquals(expected, Perft.perft(game, depth), position + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    void perftLeavesGameUnchanged() {
+        ChessGame game = PerftPosition.KIWIPETE.toGame();
+        ChessGame original = PerftPosition.KIWIPETE.toGame();
+
+        Perft.perft(game, 3);
+
+        assertEquals(original, game);
+    }
+
+    @Test
+    void divideSumsToPerft() {
+        ChessGame game = PerftPosition.PROMOTIONS.toGame();
+
+        Map<ChessMove, Long> counts = Perft.divide(game, 3);
+
+        assertEquals(PerftPosition.PROMOTIONS.expectedNodes(1), counts.size());
+        assertEquals(PerftPosition.PROMOTIONS.expectedNodes(3),
+                counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        ChessGame game = PerftPosition.DISCOVERED_CHECKS.toGame();
+        var pool = new ForkJoinPool(4);
+        try {
+            assertEquals(Perft.divide(game, 3), Perft.divide(game, 3, pool));
+            assertEquals(PerftPosition.DISCOVERED_CHECKS.expectedNodes(3), Perft.perft(game, 3, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
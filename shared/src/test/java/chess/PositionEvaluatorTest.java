@@ -0,0 +1,66 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionEvaluatorTest {
+    @Test
+    void startPositionIsBalanced() {
+        var evaluator = new ChessGame().getBoard().evaluator();
+
+        assertEquals(0, evaluator.evaluate(TeamColor.WHITE));
+        assertEquals(24, evaluator.phase());
+    }
+
+    @Test
+    void scoresAreFromTheTeamsPointOfView() {
+        // White is a queen up
+        var board = ChessBoard.fromFen("4k3/8/8/8/8/8/8/3QK3");
+
+        int white = board.evaluator().evaluate(TeamColor.WHITE);
+
+        assertTrue(white > 800);
+        assertEquals(-white, board.evaluator().evaluate(TeamColor.BLACK));
+    }
+
+    @Test
+    void mirroredPositionsScoreTheSame() {
+        var board = ChessBoard.fromFen(PerftPosition.KIWIPETE.fen());
+        // The same position with colors swapped and the board flipped
+        var mirrored = ChessBoard.fromFen("r3k2r/pppbbppp/2n2q1P/1P2p3/3pn3/BN2PNP1/P1PPQPB1/R3K2R");
+
+        assertEquals(board.evaluator().evaluate(TeamColor.WHITE), mirrored.evaluator().evaluate(TeamColor.BLACK));
+    }
+
+    @Test
+    void incrementalUpdatesMatchFreshEvaluation() {
+        for (PerftPosition position : PerftPosition.values()) {
+            var board = ChessBoard.fromFen(position.fen());
+            walk(board, TeamColor.WHITE, 3);
+            assertSameEvaluation(ChessBoard.fromFen(position.fen()), board);
+        }
+    }
+
+    private static void walk(ChessBoard board, TeamColor team, int depth) {
+        assertSameEvaluation(ChessBoard.fromFen(board.toFen()), board);
+        if (depth == 0) {
+            return;
+        }
+        var moves = new MoveList();
+        new MoveGenerator(board, team).generate(moves);
+        TeamColor enemy = ChessGame.opponentOf(team);
+        for (int i = 0; i < moves.size(); i++) {
+            board.doMove(moves.get(i));
+            walk(board, enemy, depth - 1);
+            board.undoMove();
+        }
+    }
+
+    private static void assertSameEvaluation(ChessBoard expected, ChessBoard actual) {
+        assertEquals(expected.evaluator().midgame(), actual.evaluator().midgame());
+        assertEquals(expected.evaluator().endgame(), actual.evaluator().endgame());
+        assertEquals(expected.evaluator().phase(), actual.evaluator().phase());
+    }
+}
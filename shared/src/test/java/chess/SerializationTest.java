@@ -0,0 +1,55 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializationTest {
+    private final Gson gson = new Gson();
+
+    @Test
+    void piecesDeserializeToSharedInstances() {
+        var piece = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        String json = gson.toJson(piece);
+
+        assertEquals("{\"teamColor\":\"BLACK\",\"type\":\"KNIGHT\"}", json);
+        assertSame(piece, gson.fromJson(json, ChessPiece.class));
+    }
+
+    @Test
+    void positionsDeserializeToSharedInstances() {
+        var position = ChessPosition.of(4, 5);
+        String json = gson.toJson(position);
+
+        assertEquals("{\"row\":4,\"col\":5}", json);
+        assertSame(position, gson.fromJson(json, ChessPosition.class));
+        assertEquals(new ChessPosition(9, 1), gson.fromJson("{\"row\":9,\"col\":1}", ChessPosition.class));
+    }
+
+    @Test
+    void gameRoundTripUsesSharedPieces() {
+        var game = new ChessGame();
+        var copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+        assertEquals(game, copy);
+        var position = ChessPosition.of(1, 5);
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING), copy.getBoard().getPiece(position));
+    }
+
+    @Test
+    void gameRoundTripKeepsOnlyTheLiveKeyHistory() throws InvalidMoveException {
+        var game = new ChessGame();
+        for (String move : new String[]{"g1f3", "g8f6", "f3g1", "f6g8"}) {
+            game.makeMove(Move.toChessMove(Move.parse(move)));
+        }
+
+        var copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+        assertEquals(2, copy.repetitionCount());
+        assertEquals(4, gson.toJsonTree(game).getAsJsonObject().getAsJsonArray("keyHistory").size());
+
+        // A pawn move clears the history, and its old keys are not written out
+        game.makeMove(Move.toChessMove(Move.parse("e2e4")));
+        assertEquals(0, gson.toJsonTree(game).getAsJsonObject().getAsJsonArray("keyHistory").size());
+    }
+}
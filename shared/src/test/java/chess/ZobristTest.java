@@ -0,0 +1,125 @@
+package chess;
+
+import chess.ChessGame.TeamColor;
+import chess.ChessPiece.PieceType;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristTest {
+    private static final int WALK_PLIES = 40;
+
+    /**
+     * Computes a board's key from scratch, from the pieces on it.
+     */
+    private static long recomputedKey(ChessBoard board) {
+        long key = 0L;
+        for (int square = 0; square < ChessBoard.NUM_SQUARES; square++) {
+            int pieceIndex = board.pieceAt(square);
+            if (pieceIndex != ChessBoard.NO_PIECE) {
+                key ^= Zobrist.pieceSquare(pieceIndex, square);
+            }
+        }
+        return key;
+    }
+
+    private static void assertKeyIsCurrent(ChessGame game, String step) {
+        ChessBoard board = game.getBoard();
+        long expected = recomputedKey(board);
+        assertEquals(expected, board.zobristKey(), step);
+        long turnKey = (game.getTeamTurn() == TeamColor.BLACK) ? Zobrist.BLACK_TO_MOVE : 0L;
+        assertEquals(expected ^ turnKey, game.positionKey(), step);
+    }
+
+    @Test
+    void incrementalKeyMatchesRecomputeThroughMovesAndUndos() {
+        var random = new SplittableRandom(1);
+        for (PerftPosition position : PerftPosition.values()) {
+            ChessGame game = position.toGame();
+            assertKeyIsCurrent(game, position + " start");
+
+            int plies = 0;
+            var moves = new MoveList();
+            for (; plies < WALK_PLIES; plies++) {
+                moves.clear();
+                new MoveGenerator(game.getBoard(), game.getTeamTurn()).generate(moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                int move = moves.get(random.nextInt(moves.size()));
+                game.doMove(Move.toChessMove(move));
+                assertKeyIsCurrent(game, position + " after " + Move.toString(move));
+            }
+
+            for (; plies > 0; plies--) {
+                game.undoMove();
+                assertKeyIsCurrent(game, position + " undo at ply " + plies);
+            }
+            assertEquals(position.toGame().positionKey(), game.positionKey(), position.name());
+        }
+    }
+
+    @Test
+    void promotionsUpdateTheKey() {
+        ChessGame game = ChessGame.fromFen("1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        long before = game.positionKey();
+
+        for (PieceType promotion : new PieceType[]{PieceType.QUEEN, PieceType.KNIGHT}) {
+            // A push and a capture, each promoting
+            for (ChessPosition end : new ChessPosition[]{ChessPosition.of(8, 1), ChessPosition.of(8, 2)}) {
+                game.doMove(new ChessMove(ChessPosition.of(7, 1), end, promotion));
+                assertKeyIsCurrent(game, "promotion to " + promotion + " on " + end);
+                game.undoMove();
+                assertEquals(before, game.positionKey());
+            }
+        }
+    }
+
+    @Test
+    void addingAndRemovingPiecesUpdatesTheKey() {
+        var game = new ChessGame();
+        ChessBoard board = game.getBoard();
+        long start = board.zobristKey();
+
+        board.addPiece(ChessPosition.of(4, 4), ChessPiece.of(TeamColor.BLACK, PieceType.QUEEN));
+        assertKeyIsCurrent(game, "add to an empty square");
+        board.addPiece(ChessPosition.of(2, 1), ChessPiece.of(TeamColor.BLACK, PieceType.ROOK));
+        assertKeyIsCurrent(game, "add over a piece");
+        board.removePiece(ChessPosition.of(4, 4));
+        board.addPiece(ChessPosition.of(2, 1), ChessPiece.of(TeamColor.WHITE, PieceType.PAWN));
+        assertKeyIsCurrent(game, "remove and restore");
+        board.removePiece(ChessPosition.of(5, 5));
+        assertKeyIsCurrent(game, "remove from an empty square");
+
+        assertEquals(start, board.zobristKey());
+    }
+
+    @Test
+    void sideToMoveChangesPositionKey() {
+        ChessGame white = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        ChessGame black = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 b - - 0 1");
+
+        assertEquals(white.getBoard().zobristKey(), black.getBoard().zobristKey());
+        assertNotEquals(white.positionKey(), black.positionKey());
+        assertEquals(white.positionKey() ^ Zobrist.BLACK_TO_MOVE, black.positionKey());
+    }
+
+    @Test
+    void transposedMoveOrdersGiveEqualKeys() throws InvalidMoveException {
+        var first = new ChessGame();
+        var second = new ChessGame();
+
+        for (String move : new String[]{"g1f3", "g8f6", "b1c3", "b8c6"}) {
+            first.makeMove(Move.toChessMove(Move.parse(move)));
+        }
+        for (String move : new String[]{"b1c3", "b8c6", "g1f3", "g8f6"}) {
+            second.makeMove(Move.toChessMove(Move.parse(move)));
+        }
+
+        assertEquals(first.positionKey(), second.positionKey());
+        assertEquals(first.getBoard(), second.getBoard());
+        assertNotEquals(new ChessGame().positionKey(), first.positionKey());
+    }
+}
@@ -0,0 +1,77 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessGame.TeamColor;
+import chess.Move;
+import chess.MoveGenerator;
+import chess.PerftPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovePickerTest {
+    private static List<Integer> pickAll(MovePicker picker) {
+        List<Integer> picked = new ArrayList<>();
+        for (int move = picker.next(); move != Move.NONE; move = picker.next()) {
+            picked.add(move);
+        }
+        return picked;
+    }
+
+    private static MovePicker generate(ChessBoard board, TeamColor team) {
+        var picker = new MovePicker(board, new StaticExchange());
+        picker.moves().clear();
+        new MoveGenerator(board, team).generate(picker.moves());
+        return picker;
+    }
+
+    @Test
+    void picksEveryMoveExactlyOnce() {
+        ChessGame game = PerftPosition.KIWIPETE.toGame();
+        MovePicker picker = generate(game.getBoard(), game.getTeamTurn());
+        int generated = picker.moves().size();
+        int lastMove = picker.moves().get(generated - 1);
+
+        picker.reset(lastMove, lastMove, Move.NONE, new int[ChessBoard.NUM_SQUARES * ChessBoard.NUM_SQUARES], false);
+        List<Integer> picked = pickAll(picker);
+
+        assertEquals(generated, picked.size());
+        assertEquals(generated, new HashSet<>(picked).size());
+    }
+
+    @Test
+    void ordersHashMoveThenWinningCapturesThenKillersThenLosingCaptures() {
+        // Qxd5 loses the queen to exd5; Rxa5 wins a free knight (the c3 pawn blocks Qxa5)
+        ChessBoard board = ChessBoard.fromFen("4k3/8/4p3/n2n4/8/2P5/R2Q4/4K3");
+        MovePicker picker = generate(board, TeamColor.WHITE);
+        int hashMove = Move.encode(8, 9, ChessBoard.NO_PIECE, 0);   // Ra2-b2
+        int killer = Move.encode(4, 5, ChessBoard.NO_PIECE, 0);     // Ke1-f1
+
+        picker.reset(hashMove, killer, Move.NONE, new int[ChessBoard.NUM_SQUARES * ChessBoard.NUM_SQUARES], false);
+        List<Integer> picked = pickAll(picker);
+
+        assertTrue(Move.sameMove(hashMove, picked.get(0)));
+        assertEquals(32, Move.endSquare(picked.get(1)));
+        assertTrue(Move.sameMove(killer, picked.get(2)));
+        assertEquals(35, Move.endSquare(picked.get(picked.size() - 1)));
+    }
+
+    @Test
+    void skipsLosingCapturesWhenAsked() {
+        ChessBoard board = ChessBoard.fromFen("4k3/8/4p3/n2n4/8/2P5/R2Q4/4K3");
+        var picker = new MovePicker(board, new StaticExchange());
+        picker.moves().clear();
+        new MoveGenerator(board, TeamColor.WHITE).generateCaptures(picker.moves());
+
+        picker.reset(Move.NONE, Move.NONE, Move.NONE, new int[ChessBoard.NUM_SQUARES * ChessBoard.NUM_SQUARES], true);
+        List<Integer> picked = pickAll(picker);
+
+        assertEquals(1, picked.size());
+        assertEquals(32, Move.endSquare(picked.get(0)));
+    }
+}
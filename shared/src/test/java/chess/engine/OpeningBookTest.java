@@ -0,0 +1,98 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+    @TempDir
+    Path directory;
+
+    private static List<ChessMove> moves(String... moves) {
+        return Arrays.stream(moves).map(move -> Move.toChessMove(Move.parse(move))).toList();
+    }
+
+    private Path buildBook() throws InvalidMoveException, IOException {
+        var builder = new OpeningBookBuilder();
+        builder.addGame(moves("e2e4", "e7e5", "g1f3"));
+        builder.addGame(moves("e2e4", "c7c5"));
+        builder.addGame(moves("d2d4", "d7d5"));
+        Path path = directory.resolve("book.bin");
+        builder.write(path);
+        return path;
+    }
+
+    @Test
+    void findsMostPlayedMove() throws Exception {
+        try (OpeningBook book = OpeningBook.open(buildBook())) {
+            ChessGame game = new ChessGame();
+
+            assertEquals(moves("e2e4").get(0), book.bestMove(game));
+            assertEquals(List.of(new OpeningBook.Entry(Move.parse("e2e4"), 2), new OpeningBook.Entry(Move.parse("d2d4"), 1)),
+                    book.entries(game.positionKey()));
+        }
+    }
+
+    @Test
+    void findsMovesDeeperInTheGame() throws Exception {
+        try (OpeningBook book = OpeningBook.open(buildBook())) {
+            ChessGame game = new ChessGame();
+            game.makeMove(moves("e2e4").get(0));
+
+            assertEquals(2, book.entries(game.positionKey()).size());
+            game.makeMove(moves("e7e5").get(0));
+            assertEquals(Move.parse("g1f3"), book.bestMove(game.positionKey()));
+            assertEquals(6, book.size());
+        }
+    }
+
+    @Test
+    void returnsNothingOutOfBook() throws Exception {
+        try (OpeningBook book = OpeningBook.open(buildBook())) {
+            ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+
+            assertNull(book.bestMove(game));
+            assertEquals(Move.NONE, book.pickMove(game.positionKey(), 12345));
+            assertTrue(book.entries(game.positionKey()).isEmpty());
+        }
+    }
+
+    @Test
+    void picksMovesInProportionToWeight() throws Exception {
+        try (OpeningBook book = OpeningBook.open(buildBook())) {
+            long key = new ChessGame().positionKey();
+
+            // Total weight 3: random values 0 and 1 pick e2e4, 2 picks d2d4
+            assertEquals(Move.parse("e2e4"), book.pickMove(key, 0));
+            assertEquals(Move.parse("e2e4"), book.pickMove(key, 1));
+            assertEquals(Move.parse("d2d4"), book.pickMove(key, 2));
+        }
+    }
+
+    @Test
+    void rejectsIllegalGames() {
+        var builder = new OpeningBookBuilder();
+
+        assertThrows(InvalidMoveException.class, () -> builder.addGame(moves("e2e4", "e2e4")));
+        assertEquals(0, builder.games());
+    }
+
+    @Test
+    void rejectsFilesThatAreNotBooks() throws IOException {
+        Path path = directory.resolve("not-a-book.bin");
+        Files.write(path, new byte[32]);
+
+        assertThrows(IOException.class, () -> OpeningBook.open(path));
+    }
+}
@@ -0,0 +1,48 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.PerftPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSearchTest {
+    @Test
+    void findsMateWithHelpers() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        try (var search = new ParallelSearch(4)) {
+            SearchResult result = search.search(game, SearchLimits.depth(4));
+
+            assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.bestChessMove());
+            assertEquals(Search.MATE - 1, result.score());
+        }
+    }
+
+    @Test
+    void reachesDepthAndCountsEveryThread() {
+        ChessGame game = PerftPosition.MIDDLEGAME.toGame();
+
+        try (var search = new ParallelSearch(3)) {
+            SearchResult result = search.search(game, SearchLimits.depth(4));
+
+            assertEquals(4, result.depth());
+            ChessMove move = result.bestChessMove();
+            assertTrue(game.validMoves(move.getStartPosition()).contains(move));
+        }
+        assertEquals(PerftPosition.MIDDLEGAME.toGame(), game);
+    }
+
+    @Test
+    void timeLimitStopsHelpers() {
+        try (var search = new ParallelSearch(2)) {
+            long start = System.nanoTime();
+            SearchResult result = search.search(PerftPosition.KIWIPETE.toGame(), SearchLimits.time(200));
+
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+            assertNotNull(result.bestChessMove());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Move;
+import chess.PerftPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+    @Test
+    void findsMateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.bestChessMove());
+        assertEquals(Search.MATE - 1, result.score());
+        assertTrue(result.isMate());
+    }
+
+    @Test
+    void findsMateInTwo() {
+        // Two rooks ladder the black king: Rb7, then Ra8#
+        ChessGame game = ChessGame.fromFen("7k/8/8/8/8/8/R7/1R4K1 w - - 0 1");
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(5));
+
+        assertEquals(Search.MATE - 3, result.score());
+    }
+
+    @Test
+    void winsHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(2));
+
+        assertEquals(new ChessMove(ChessPosition.of(2, 4), ChessPosition.of(5, 4), null), result.bestChessMove());
+    }
+
+    @Test
+    void reportsNoMoveWhenMated() {
+        ChessGame game = ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+
+        assertEquals(Move.NONE, result.bestMove());
+        assertEquals(-Search.MATE, result.score());
+    }
+
+    @Test
+    void fixedDepthIsDeterministic() {
+        ChessGame game = PerftPosition.KIWIPETE.toGame();
+        var search = new Search();
+
+        SearchResult first = search.search(game, SearchLimits.depth(4));
+        search.clear();
+        SearchResult second = search.search(game, SearchLimits.depth(4));
+
+        assertEquals(first.nodes(), second.nodes());
+        assertEquals(first.bestMove(), second.bestMove());
+        assertEquals(first.score(), second.score());
+        assertEquals(4, first.depth());
+    }
+
+    @Test
+    void tableCarriesOverBetweenSearches() {
+        ChessGame game = PerftPosition.KIWIPETE.toGame();
+        var search = new Search();
+
+        SearchResult first = search.search(game, SearchLimits.depth(4));
+        SearchResult second = search.search(game, SearchLimits.depth(4));
+
+        assertTrue(second.nodes() < first.nodes());
+        assertEquals(first.bestMove(), second.bestMove());
+    }
+
+    @Test
+    void respectsNodeLimit() {
+        ChessGame game = PerftPosition.MIDDLEGAME.toGame();
+
+        SearchResult result = new Search().search(game, SearchLimits.nodes(5000));
+
+        assertTrue(result.nodes() <= 5000);
+        assertNotNull(result.bestChessMove());
+        assertTrue(game.validMoves(result.bestChessMove().getStartPosition()).contains(result.bestChessMove()));
+    }
+
+    @Test
+    void searchLeavesGameUnchanged() {
+        ChessGame game = PerftPosition.PROMOTIONS.toGame();
+
+        new Search().search(game, SearchLimits.depth(3));
+
+        assertEquals(PerftPosition.PROMOTIONS.toGame(), game);
+    }
+}
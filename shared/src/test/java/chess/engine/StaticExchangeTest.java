@@ -0,0 +1,42 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.Move;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticExchangeTest {
+    private static int see(String fen, int start, int end) {
+        ChessBoard board = ChessBoard.fromFen(fen);
+        return new StaticExchange().evaluate(board, Move.encode(start, end, ChessBoard.NO_PIECE, Move.CAPTURE));
+    }
+
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + (name.charAt(0) - 'a');
+    }
+
+    @Test
+    void freeCaptureWinsThePiece() {
+        // Rxd5 with nothing defending the knight
+        assertEquals(337, see("4k3/8/8/3n4/8/8/3R4/4K3", square("d2"), square("d5")));
+    }
+
+    @Test
+    void captureOfDefendedPieceLosesTheDifference() {
+        // Qxd5, then exd5 wins the queen for a knight
+        assertEquals(337 - 1025, see("4k3/8/4p3/3n4/8/8/3Q4/4K3", square("d2"), square("d5")));
+    }
+
+    @Test
+    void defenderMayDeclineLosingRecapture() {
+        // Pxd5: recapturing with the queen would lose it to the rook, so black stops
+        assertEquals(337, see("4k3/8/8/3n4/4P3/8/8/3RK1q1", square("e4"), square("d5")));
+    }
+
+    @Test
+    void xRayAttackerJoinsTheExchange() {
+        // Rxd5 Rxd5 Rxd5: the doubled rook behind the first one wins the exchange
+        assertEquals(337, see("3rk3/8/8/3n4/8/8/3R4/3RK3", square("d2"), square("d5")));
+    }
+}
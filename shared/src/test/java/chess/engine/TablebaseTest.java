@@ -0,0 +1,126 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame.TeamColor;
+import chess.engine.Tablebase.Ending;
+import chess.engine.Tablebase.Wdl;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTest {
+    @TempDir
+    static Path directory;
+
+    private static final ForkJoinPool pool = new ForkJoinPool(2);
+    private static TablebaseGenerator generator;
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        generator = new TablebaseGenerator(pool);
+        for (Ending ending : Ending.values()) {
+            generator.write(ending, directory);
+        }
+        tablebase = Tablebase.open(directory);
+    }
+
+    @AfterAll
+    static void close() throws IOException {
+        tablebase.close();
+        pool.shutdown();
+    }
+
+    private static int longestMate(Ending ending) {
+        int longest = 0;
+        for (byte value : generator.generate(ending)) {
+            longest = Math.max(longest, value - 1);
+        }
+        return longest;
+    }
+
+    @Test
+    void longestMatesMatchKnownValues() {
+        // 10, 16 and 28 moves for the winner, so the loser to move is mated in twice that
+        assertEquals(20, longestMate(Ending.KQK));
+        assertEquals(32, longestMate(Ending.KRK));
+        assertEquals(56, longestMate(Ending.KPK));
+    }
+
+    @Test
+    void findsCheckmateAndMateInOne() {
+        ChessBoard mated = ChessBoard.fromFen("7k/6Q1/6K1/8/8/8/8/8");
+        assertEquals(Wdl.LOSS, tablebase.probeWdl(mated, TeamColor.BLACK));
+        assertEquals(0, tablebase.probeDistanceToMate(mated, TeamColor.BLACK));
+
+        ChessBoard mateInOne = ChessBoard.fromFen("7k/8/6K1/8/8/8/8/5Q2");
+        assertEquals(Wdl.WIN, tablebase.probeWdl(mateInOne, TeamColor.WHITE));
+        assertEquals(1, tablebase.probeDistanceToMate(mateInOne, TeamColor.WHITE));
+    }
+
+    @Test
+    void stalemateIsDrawn() {
+        ChessBoard board = ChessBoard.fromFen("7k/5Q2/6K1/8/8/8/8/8");
+
+        assertEquals(Wdl.DRAW, tablebase.probeWdl(board, TeamColor.BLACK));
+        assertEquals(-1, tablebase.probeDistanceToMate(board, TeamColor.BLACK));
+    }
+
+    @Test
+    void capturingTheRookDraws() {
+        // Black to move takes the undefended rook
+        ChessBoard board = ChessBoard.fromFen("8/8/8/8/8/2K5/8/6Rk");
+
+        assertEquals(Wdl.DRAW, tablebase.probeWdl(board, TeamColor.BLACK));
+    }
+
+    @Test
+    void kingInFrontOfPawnWinsForEitherSideToMove() {
+        ChessBoard board = ChessBoard.fromFen("4k3/8/4K3/4P3/8/8/8/8");
+
+        assertEquals(Wdl.WIN, tablebase.probeWdl(board, TeamColor.WHITE));
+        assertEquals(Wdl.LOSS, tablebase.probeWdl(board, TeamColor.BLACK));
+    }
+
+    @Test
+    void rookPawnAgainstKingInTheCornerIsDrawn() {
+        ChessBoard board = ChessBoard.fromFen("k7/8/K7/P7/8/8/8/8");
+
+        assertEquals(Wdl.DRAW, tablebase.probeWdl(board, TeamColor.WHITE));
+        assertEquals(Wdl.DRAW, tablebase.probeWdl(board, TeamColor.BLACK));
+    }
+
+    @Test
+    void probesBlackPiecesWithColorsSwapped() {
+        ChessBoard white = ChessBoard.fromFen("4k3/8/4K3/4P3/8/8/8/8");
+        ChessBoard black = ChessBoard.fromFen("8/8/8/8/4p3/4k3/8/4K3");
+
+        assertEquals(Wdl.WIN, tablebase.probeWdl(black, TeamColor.BLACK));
+        assertEquals(tablebase.probeDistanceToMate(white, TeamColor.WHITE),
+                tablebase.probeDistanceToMate(black, TeamColor.BLACK));
+    }
+
+    @Test
+    void ignoresPositionsWithoutATable() {
+        assertNull(tablebase.probeWdl(ChessBoard.fromFen("4k3/8/8/8/8/8/8/2B1K3"), TeamColor.WHITE));
+        assertNull(tablebase.probeWdl(ChessBoard.fromFen("4k3/8/8/8/8/8/3PP3/4K3"), TeamColor.WHITE));
+        assertEquals(-1, tablebase.probeDistanceToMate(ChessBoard.fromFen("4k3/8/8/8/8/8/8/2B1K3"), TeamColor.WHITE));
+    }
+
+    @Test
+    void resultDoesNotDependOnThreadCount() {
+        var singleThreaded = new ForkJoinPool(1);
+        try {
+            assertArrayEquals(generator.generate(Ending.KRK), new TablebaseGenerator(singleThreaded).generate(Ending.KRK));
+        } finally {
+            singleThreaded.shutdown();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package chess.engine;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+    @Test
+    void storesAndProbesEntries() {
+        var table = new TranspositionTable(1);
+        long key = 0x123456789ABCDEFL;
+
+        table.store(key, 0x1234, -250, 7, TranspositionTable.BOUND_LOWER);
+        long data = table.probe(key);
+
+        assertEquals(0x1234, TranspositionTable.move(data));
+        assertEquals(-250, TranspositionTable.score(data));
+        assertEquals(7, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data));
+    }
+
+    @Test
+    void sizedInMegabytes() {
+        assertEquals(65536, new TranspositionTable(1).capacity());
+        assertEquals(3 * 65536, new TranspositionTable(3).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    void otherPositionsMiss() {
+        var table = new TranspositionTable(1);
+
+        table.store(0x5555L, 1, 10, 3, TranspositionTable.BOUND_EXACT);
+
+        assertEquals(0L, table.probe(0x5556L));
+        assertEquals(0L, table.probe(0L));
+    }
+
+    @Test
+    void keepsDeeperEntryFromSameSearch() {
+        var table = new TranspositionTable(1);
+        long key = 42L;
+
+        table.store(key, 1, 10, 8, TranspositionTable.BOUND_LOWER);
+        table.store(key, 2, 20, 3, TranspositionTable.BOUND_LOWER);
+        assertEquals(8, TranspositionTable.depth(table.probe(key)));
+
+        table.newSearch();
+        table.store(key, 2, 20, 3, TranspositionTable.BOUND_LOWER);
+        assertEquals(3, TranspositionTable.depth(table.probe(key)));
+    }
+
+    @Test
+    void replacesShallowAndStaleEntriesFirst() {
+        var table = new TranspositionTable(1);
+        // Keys whose high bits match land in the same bucket
+        long bucketKey = 0x0123_0000_0000_0000L;
+
+        table.store(bucketKey, 1, 0, 9, TranspositionTable.BOUND_EXACT);
+        table.newSearch();
+        for (int i = 1; i <= 3; i++) {
+            table.store(bucketKey + i, 1, 0, 5, TranspositionTable.BOUND_EXACT);
+        }
+        // The bucket is full: the deep but old entry is worth less than the fresh ones
+        table.store(bucketKey + 4, 1, 0, 6, TranspositionTable.BOUND_EXACT);
+
+        assertEquals(0L, table.probe(bucketKey));
+        for (int i = 1; i <= 4; i++) {
+            assertNotEquals(0L, table.probe(bucketKey + i));
+        }
+    }
+
+    @Test
+    void reportsHashfull() {
+        var table = new TranspositionTable(1);
+        assertEquals(0, table.hashfull());
+
+        // Keys spread evenly over the table fill its sampled first entries
+        long step = Long.divideUnsigned(-1L, table.capacity() / 4) + 1;
+        for (long i = 0; i < 250; i++) {
+            for (int j = 0; j < 4; j++) {
+                table.store(i * step + j, 1, 0, 1, TranspositionTable.BOUND_EXACT);
+            }
+        }
+        assertEquals(1000, table.hashfull());
+
+        table.newSearch();
+        assertEquals(0, table.hashfull());
+    }
+}
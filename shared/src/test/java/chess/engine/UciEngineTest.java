@@ -0,0 +1,155 @@
+package chess.engine;
+
+import chess.ChessMove;
+import chess.Move;
+import chess.PerftPosition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UciEngineTest {
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final UciEngine engine = new UciEngine(new PrintStream(output, true));
+
+    private List<String> run(String... commands) {
+        for (String command : commands) {
+            engine.handle(command);
+        }
+        engine.awaitSearch();
+        List<String> lines = output.toString().lines().toList();
+        output.reset();
+        return lines;
+    }
+
+    private static String bestMove(List<String> lines) {
+        String last = lines.get(lines.size() - 1);
+        assertTrue(last.startsWith("bestmove "), last);
+        return last.substring("bestmove ".length());
+    }
+
+    @Test
+    void handshake() {
+        List<String> lines = run("uci", "isready");
+
+        assertTrue(lines.get(0).startsWith("id name"));
+        assertTrue(lines.contains("option name Hash type spin default 16 min 1 max 4096"));
+        assertEquals(List.of("uciok", "readyok"), lines.subList(lines.size() - 2, lines.size()));
+    }
+
+    @Test
+    void findsMateFromFen() {
+        List<String> lines = run("position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1", "go depth 4");
+
+        assertEquals("a1a8", bestMove(lines));
+        assertTrue(lines.get(lines.size() - 2).contains("score mate 1"), lines.get(lines.size() - 2));
+    }
+
+    @Test
+    void playsMovesAfterStartPosition() {
+        // After 1. e4 f6 2. d4 g5, Qh5 mates
+        List<String> lines = run("ucinewgame", "position startpos moves e2e4 f7f6 d2d4 g7g5", "go depth 2");
+
+        assertEquals("d1h5", bestMove(lines));
+    }
+
+    @Test
+    void illegalMovesAreReportedAndIgnored() {
+        List<String> lines = run("position startpos moves e2e4 e2e4", "go depth 1");
+
+        assertTrue(lines.get(0).startsWith("info string Illegal move e2e4"), lines.get(0));
+        ChessMove move = Move.toChessMove(Move.parse(bestMove(lines)));
+        assertEquals(8, move.getStartPosition().getRow());
+    }
+
+    @Test
+    void optionsAndTimeLimitsWork() {
+        List<String> lines = run("setoption name Threads value 2", "setoption name Hash value 4",
+                "position startpos", "go wtime 2000 btime 2000 winc 0 binc 0");
+
+        assertNotEquals("0000", bestMove(lines));
+        assertTrue(UciEngine.allocateTime(2000, 0, 30) < 100);
+        assertEquals(1, UciEngine.allocateTime(10, 0, 30));
+    }
+
+    @Test
+    void stopEndsAnInfiniteSearch() {
+        engine.handle("position startpos");
+        engine.handle("go infinite");
+
+        List<String> lines = run("stop");
+
+        assertNotEquals("0000", bestMove(lines));
+    }
+
+    @Test
+    void commandsDuringAnInfiniteSearchStopIt() {
+        for (String command : new String[]{"position startpos moves e2e4", "ucinewgame",
+                "setoption name Hash value 2", "bench 1"}) {
+            engine.handle("position startpos");
+            engine.handle("go infinite");
+
+            List<String> lines = assertTimeoutPreemptively(Duration.ofSeconds(30), () -> run(command));
+
+            assertTrue(lines.stream().anyMatch(line -> line.startsWith("bestmove ")), command);
+        }
+    }
+
+    @Test
+    void negativeGoLimitsAreReported() {
+        for (String command : new String[]{"go depth -1", "go nodes -1", "go movetime -5"}) {
+            assertEquals(List.of("info string Cannot read go command: " + command), run("position startpos", command));
+        }
+        assertNotEquals("0000", bestMove(run("go depth 1")));
+    }
+
+    @Test
+    void badBenchDepthIsReported() {
+        assertEquals(List.of("info string Not a bench depth: x"), run("bench x"));
+        assertEquals(List.of("info string Not a bench depth: 0"), run("bench 0"));
+        assertTrue(engine.handle("isready"));
+    }
+
+    @Test
+    void playsBookMoves(@TempDir Path directory) throws Exception {
+        var builder = new OpeningBookBuilder();
+        builder.addGame(List.of(Move.toChessMove(Move.parse("d2d4"))));
+        Path bookFile = directory.resolve("test.book");
+        builder.write(bookFile);
+
+        List<String> lines = run("setoption name BookFile value " + bookFile, "position startpos", "go depth 1");
+
+        assertEquals("d2d4", bestMove(lines));
+        engine.close();
+    }
+
+    @Test
+    void benchIsRepeatable() {
+        SearchResult first = engine.bench(3);
+        List<String> lines = run();
+        SearchResult second = engine.bench(3);
+
+        assertEquals(first.nodes(), second.nodes());
+        assertEquals(PerftPosition.values().length + 3, lines.size());
+        assertEquals("Nodes searched: " + first.nodes(), lines.get(PerftPosition.values().length));
+    }
+
+    @Test
+    void benchRejectsDepthsWithoutALimit() {
+        assertThrows(IllegalArgumentException.class, () -> engine.bench(0));
+        assertThrows(IllegalArgumentException.class, () -> engine.bench(-1));
+        assertEquals(List.of(), run());
+    }
+
+    @Test
+    void quitReturnsFalse() {
+        assertTrue(engine.handle("isready"));
+        assertFalse(engine.handle("quit"));
+    }
+}